@@ -0,0 +1,47 @@
+package de.necon.clieman_backend.benchmark;
+
+import de.necon.clieman_backend.config.ServiceErrorMessages;
+import de.necon.clieman_backend.network.ExceptionToMessageMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures mapping exceptions to message codes with the mappings of GeneralConfig, for a registered exception and
+ * for one that falls back to INTERNAL_SERVER_ERROR.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExceptionMappingBenchmark {
+
+    private ExceptionToMessageMapper mapper;
+
+    private Exception registeredException;
+    private Exception unregisteredException;
+
+    @Setup
+    public void setup() {
+        mapper = new ExceptionToMessageMapper()
+                .register(DisabledException.class, ServiceErrorMessages.USER_IS_DISABLED)
+                .register(BadCredentialsException.class, ServiceErrorMessages.BAD_CREDENTIALS);
+
+        registeredException = new BadCredentialsException("bad credentials");
+        unregisteredException = new IllegalStateException("unexpected");
+    }
+
+    @Benchmark
+    public String mapRegisteredException() {
+        return mapper.mapExceptionToMessageCode(registeredException);
+    }
+
+    @Benchmark
+    public String mapUnregisteredException() {
+        return mapper.mapExceptionToMessageCode(unregisteredException);
+    }
+}
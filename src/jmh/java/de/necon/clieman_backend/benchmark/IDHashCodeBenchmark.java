@@ -0,0 +1,44 @@
+package de.necon.clieman_backend.benchmark;
+
+import de.necon.clieman_backend.model.ID;
+import de.necon.clieman_backend.model.User;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the hash code of {@link ID}, that is based on the id of the user, with the former implementation, that
+ * hashed the whole user object.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IDHashCodeBenchmark {
+
+    private ID id;
+
+    @Setup
+    public void setup() {
+        var user = new User("test@email.com", "$2a$10$abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ012",
+                "testUser", true);
+        user.setId(42L);
+        id = new ID("client-4711", user);
+    }
+
+    @Benchmark
+    public int hashCodeByUserId() {
+        return id.hashCode();
+    }
+
+    @Benchmark
+    public int hashCodeByUserObject() {
+        return new HashCodeBuilder(17, 37)
+                .append(id.getId())
+                .append(id.getUser())
+                .toHashCode();
+    }
+}
@@ -0,0 +1,120 @@
+package de.necon.clieman_backend.benchmark;
+
+import de.necon.clieman_backend.model.ID;
+import de.necon.clieman_backend.model.User;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up 100k entities by their {@link ID}, like the persistence context and the services do, and compares the
+ * hand-written equals and cached hash code of ID with the former EqualsBuilder/HashCodeBuilder implementation.
+ * The keys are either the instances the map was filled with or equal copies, e.g. IDs read from a request.
+ * The scores are per lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IDLookupBenchmark {
+
+    private static final int USERS = 100;
+    private static final int ENTITIES = 100_000;
+
+    @Param({"id", "builder"})
+    public String implementation;
+
+    private Map<Object, Object> entities;
+    private List<Object> sameKeys;
+    private List<Object> equalKeys;
+
+    @Setup
+    public void setup() {
+        var users = new ArrayList<User>();
+        for (long i = 0; i < USERS; ++i) {
+            var user = new User("user" + i + "@email.com", "password", "user" + i, true);
+            user.setId(i);
+            users.add(user);
+        }
+
+        entities = new HashMap<>();
+        sameKeys = new ArrayList<>();
+        equalKeys = new ArrayList<>();
+
+        for (int i = 0; i < ENTITIES; ++i) {
+            var user = users.get(i % USERS);
+            var key = createKey("entity-" + i, user);
+            entities.put(key, new Object());
+            sameKeys.add(key);
+            equalKeys.add(createKey(new String("entity-" + i), user.copy()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES)
+    public void lookupSameKeys(Blackhole blackhole) {
+        for (var key : sameKeys) {
+            blackhole.consume(entities.get(key));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES)
+    public void lookupEqualKeys(Blackhole blackhole) {
+        for (var key : equalKeys) {
+            blackhole.consume(entities.get(key));
+        }
+    }
+
+    private Object createKey(String id, User user) {
+        return implementation.equals("id") ? new ID(id, user) : new BuilderID(id, user);
+    }
+
+    /**
+     * The former implementation of {@link ID#equals(Object)} and {@link ID#hashCode()}.
+     */
+    private static class BuilderID {
+        private final String id;
+        private final User user;
+
+        BuilderID(String id, User user) {
+            this.id = id;
+            this.user = user;
+        }
+
+        Long getUserId() {
+            return user != null ? user.getId() : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+
+            if (o == null || getClass() != o.getClass()) return false;
+
+            BuilderID id1 = (BuilderID) o;
+
+            return new EqualsBuilder()
+                    .append(id, id1.id)
+                    .append(getUserId(), id1.getUserId())
+                    .isEquals();
+        }
+
+        @Override
+        public int hashCode() {
+            return new HashCodeBuilder(17, 37)
+                    .append(id)
+                    .append(getUserId())
+                    .toHashCode();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package de.necon.clieman_backend.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import de.necon.clieman_backend.config.SecurityConstants;
+import de.necon.clieman_backend.model.User;
+import de.necon.clieman_backend.service.JWTTokenService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of extracting the subject of a token per request. The former implementation built a new
+ * verifier for every request and verified the signature of every token, even if the token was seen before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JWTVerificationBenchmark {
+
+    private static final String SECRET = "benchmarkSecret";
+
+    private JWTTokenService tokenService;
+    private JWTVerifier verifier;
+    private String token;
+
+    @Setup
+    public void setup() {
+        var env = new StandardEnvironment();
+        env.getPropertySources().addFirst(new MapPropertySource("benchmark",
+                Map.of(SecurityConstants.SECRET_ENV_VARIABLE, SECRET)));
+
+        tokenService = new JWTTokenService(null, env);
+        verifier = JWT.require(Algorithm.HMAC512(SECRET.getBytes())).build();
+        token = JWTTokenService.TOKEN_PREFIX + tokenService.createToken(new User("test@email.com", "password",
+                "username", true));
+    }
+
+    @Benchmark
+    public String newVerifierPerRequest() {
+        return JWT.require(Algorithm.HMAC512(SECRET.getBytes()))
+                .build()
+                .verify(token.replace(JWTTokenService.TOKEN_PREFIX, ""))
+                .getSubject();
+    }
+
+    @Benchmark
+    public String reusedVerifier() {
+        return verifier.verify(token.replace(JWTTokenService.TOKEN_PREFIX, "")).getSubject();
+    }
+
+    @Benchmark
+    public String cachedVerification() {
+        return tokenService.getSubjectFromToken(token);
+    }
+}
@@ -0,0 +1,83 @@
+package de.necon.clieman_backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.necon.clieman_backend.config.JacksonConfiguration;
+import de.necon.clieman_backend.model.Client;
+import de.necon.clieman_backend.model.Event;
+import de.necon.clieman_backend.model.Sex;
+import de.necon.clieman_backend.model.User;
+import de.necon.clieman_backend.util.Json;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures JSON round trips of single entities through {@link Json}, which is used e.g. by the tests and the
+ * response writer. For the throughput of whole lists and the binary formats see SerializationBenchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    private Json json;
+
+    private Client client;
+    private Event event;
+
+    private String serializedClient;
+    private String serializedEvent;
+
+    @Setup
+    public void setup() throws IOException {
+        json = new Json(JacksonConfiguration.configure(new ObjectMapper(), false));
+
+        var user = new User("test@email.com", "password", "testUser", true);
+        user.setId(42L);
+
+        client = new Client("Main Street 1, 12345 Town", new Date(500_000_000_000L), "jane@email.com", "Jane",
+                "client", "+49 123 456789", "Doe", Sex.FEMALE, "Dr.", user);
+
+        var clients = new ArrayList<Client>();
+        for (int i = 0; i < 3; ++i) {
+            clients.add(new Client(null, null, null, null, "client" + i, null, null, null, null, user));
+        }
+        var start = new Date(1_600_000_000_000L);
+        event = new Event("Follow-up appointment, bring the documents of the last meeting.", start,
+                new Date(start.getTime() + 1_800_000L), clients, "#303050", "event", "Meeting", user);
+
+        serializedClient = json.serialize(client);
+        serializedEvent = json.serialize(event);
+    }
+
+    @Benchmark
+    public String serializeClient() throws IOException {
+        return json.serialize(client);
+    }
+
+    @Benchmark
+    public Client deserializeClient() throws IOException {
+        return json.deserialize(serializedClient, Client.class);
+    }
+
+    @Benchmark
+    public String serializeEvent() throws IOException {
+        return json.serialize(event);
+    }
+
+    @Benchmark
+    public Event deserializeEvent() throws IOException {
+        return json.deserialize(serializedEvent, Event.class);
+    }
+
+    @Benchmark
+    public Event roundTripEvent() throws IOException {
+        return json.deserialize(json.serialize(event), Event.class);
+    }
+}
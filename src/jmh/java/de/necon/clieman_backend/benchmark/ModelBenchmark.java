@@ -0,0 +1,93 @@
+package de.necon.clieman_backend.benchmark;
+
+import de.necon.clieman_backend.model.Client;
+import de.necon.clieman_backend.model.Event;
+import de.necon.clieman_backend.model.Sex;
+import de.necon.clieman_backend.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures equals, hashCode and copying of the entities, which are built on EqualsBuilder and HashCodeBuilder.
+ * The compared objects are equal but distinct, so equals has to compare all fields.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ModelBenchmark {
+
+    /**
+     * The number of clients of the event.
+     */
+    @Param({"1", "10"})
+    public int clientCount;
+
+    private Client client;
+    private Client equalClient;
+    private Event event;
+    private Event equalEvent;
+
+    @Setup
+    public void setup() {
+        var user = new User("test@email.com", "$2a$10$abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ012",
+                "testUser", true);
+        user.setId(42L);
+
+        client = createClient("client", user);
+        equalClient = client.copyShallow();
+
+        var clients = new ArrayList<Client>();
+        for (int i = 0; i < clientCount; ++i) {
+            clients.add(createClient("client" + i, user));
+        }
+
+        var start = new Date(1_600_000_000_000L);
+        event = new Event("Follow-up appointment, bring the documents of the last meeting.", start,
+                new Date(start.getTime() + 1_800_000L), clients, "#303050", "event", "Meeting", user);
+        equalEvent = event.copyMiddle();
+        // distinct clients, the clients of the copy would be compared by identity
+        equalEvent.setClients(clients.stream().map(Client::copyShallow).collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public boolean eventEquals() {
+        return event.equals(equalEvent);
+    }
+
+    @Benchmark
+    public int eventHashCode() {
+        return event.hashCode();
+    }
+
+    @Benchmark
+    public boolean clientEquals() {
+        return client.equals(equalClient);
+    }
+
+    @Benchmark
+    public int clientHashCode() {
+        return client.hashCode();
+    }
+
+    @Benchmark
+    public Event eventCopyMiddle() {
+        return event.copyMiddle();
+    }
+
+    @Benchmark
+    public Client clientCopyShallow() {
+        return client.copyShallow();
+    }
+
+    private static Client createClient(String id, User user) {
+        return new Client("Main Street 1, 12345 Town", new Date(500_000_000_000L), id + "@email.com", "Jane", id,
+                "+49 123 456789", "Doe", Sex.FEMALE, "Dr.", user);
+    }
+}
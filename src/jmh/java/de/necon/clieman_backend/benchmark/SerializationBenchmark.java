@@ -0,0 +1,179 @@
+package de.necon.clieman_backend.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import de.necon.clieman_backend.config.JacksonConfiguration;
+import de.necon.clieman_backend.model.Client;
+import de.necon.clieman_backend.model.Event;
+import de.necon.clieman_backend.model.EventView;
+import de.necon.clieman_backend.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Measures serializing (and deserializing) a list of 10k events with the supported formats, with and without the
+ * afterburner module. The payload size of each format (plain and gzip compressed) is reported by payloadSize.
+ * <p>
+ * Run with '-prof gc' for the bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private static final int EVENT_COUNT = 10_000;
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean afterburner;
+
+    private List<EventView> views;
+    private List<Event> events;
+
+    private ObjectMapper mapper;
+    private ObjectWriter viewsWriter;
+    private ObjectWriter eventsWriter;
+    private ObjectReader viewsReader;
+    private ObjectReader eventsReader;
+
+    private byte[] serializedViews;
+    private byte[] serializedEvents;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(4 * 1024 * 1024);
+
+    @Setup
+    public void setup() throws IOException {
+        switch (format) {
+            case "smile":
+                mapper = new ObjectMapper(new SmileFactory());
+                break;
+            case "cbor":
+                mapper = new ObjectMapper(new CBORFactory());
+                break;
+            default:
+                mapper = new ObjectMapper();
+        }
+        JacksonConfiguration.configure(mapper, afterburner);
+
+        viewsWriter = mapper.writerFor(new TypeReference<List<EventView>>(){});
+        eventsWriter = mapper.writerFor(new TypeReference<List<Event>>(){});
+        viewsReader = mapper.readerFor(new TypeReference<List<EventView>>(){});
+        eventsReader = mapper.readerFor(new TypeReference<List<Event>>(){});
+
+        var user = new User("test@email.com", "password", "user", true);
+        user.setId(1L);
+        var clients = new ArrayList<Client>();
+        for (int i = 0; i < 100; ++i) {
+            clients.add(new Client(null, null, null, null, "client" + i, null, null, null, null, user));
+        }
+
+        views = new ArrayList<>(EVENT_COUNT);
+        events = new ArrayList<>(EVENT_COUNT);
+        var details = "Follow-up appointment, bring the documents of the last meeting and the signed contract. ".repeat(3);
+        for (int i = 0; i < EVENT_COUNT; ++i) {
+            var start = new Date(1_600_000_000_000L + i * 3_600_000L);
+            var end = new Date(start.getTime() + 1_800_000L);
+            var eventClients = List.of(clients.get(i % 100), clients.get((i + 1) % 100));
+
+            var view = new EventView("event" + i, "#303050", details, end, "Meeting " + i, start, i % 3,
+                    start);
+            eventClients.forEach(c -> view.getClientIds().add(c.getId().getId()));
+            views.add(view);
+
+            events.add(new Event(details, start, end, new ArrayList<>(eventClients), "#303050", "event" + i,
+                    "Meeting " + i, user));
+        }
+
+        serializedViews = viewsWriter.writeValueAsBytes(views);
+        serializedEvents = eventsWriter.writeValueAsBytes(events);
+    }
+
+    /**
+     * The payload size of the serialized views, reported as the secondary results plainBytes and gzipBytes of
+     * payloadSize.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class PayloadSize {
+        public long plainBytes;
+        public long gzipBytes;
+    }
+
+    /**
+     * Measures the payload size of the views. The time (of compressing them) is irrelevant, so it is measured shortly.
+     * Note: Aux counters aren't reported in the single shot mode.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1, time = 1)
+    public void payloadSize(PayloadSize size) throws IOException {
+        var compressed = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(serializedViews);
+        }
+        size.plainBytes = serializedViews.length;
+        size.gzipBytes = compressed.size();
+    }
+
+    /**
+     * Serializes the views with a writer created once (like the message converters, which resolve the serializers
+     * through the mapper's cache).
+     */
+    @Benchmark
+    public int serializeViews() throws IOException {
+        out.reset();
+        viewsWriter.writeValue(out, views);
+        return out.size();
+    }
+
+    /**
+     * Serializes the views with a writer created per call.
+     */
+    @Benchmark
+    public int serializeViewsWithMapper() throws IOException {
+        out.reset();
+        mapper.writeValue(out, views);
+        return out.size();
+    }
+
+    /**
+     * Serializes the entities (ids and clients are written by ID.IDSerializer and Event.ClientSerializer).
+     */
+    @Benchmark
+    public int serializeEvents() throws IOException {
+        out.reset();
+        eventsWriter.writeValue(out, events);
+        return out.size();
+    }
+
+    @Benchmark
+    public List<EventView> deserializeViews() throws IOException {
+        return viewsReader.readValue(serializedViews);
+    }
+
+    /**
+     * Deserializes the entities, like an event upload (the clients are read by Event.ClientDeserializer).
+     */
+    @Benchmark
+    public List<Event> deserializeEvents() throws IOException {
+        return eventsReader.readValue(serializedEvents);
+    }
+}
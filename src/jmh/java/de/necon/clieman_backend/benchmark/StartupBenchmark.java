@@ -0,0 +1,80 @@
+package de.necon.clieman_backend.benchmark;
+
+import de.necon.clieman_backend.CliemanApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time until the application context is started while the mail server accepts connections but doesn't
+ * answer. Startup must not wait for the mail server (formerly a test email was sent during the startup).
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    private static final int MAIL_TIMEOUT_MILLIS = 3000;
+
+    private ServerSocket unresponsiveMailServer;
+    private final List<Socket> connections = new ArrayList<>();
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void startMailServer() throws IOException {
+        unresponsiveMailServer = new ServerSocket(0);
+
+        var thread = new Thread(() -> {
+            try {
+                while (true) connections.add(unresponsiveMailServer.accept());
+            } catch (IOException e) {
+                // server socket closed
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopMailServer() throws IOException {
+        unresponsiveMailServer.close();
+        for (var connection : connections) connection.close();
+    }
+
+    @Benchmark
+    public ConfigurableApplicationContext startup() {
+        // passed as command line arguments, so that they take precedence over application.yml
+        context = new SpringApplicationBuilder(CliemanApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--clieman.JWT_SECRET=benchmarkSecret",
+                        "--clieman.JDBC_DATABASE_URL=jdbc:h2:mem:startup",
+                        "--clieman.JDBC_DATABASE_USERNAME=sa",
+                        "--clieman.JDBC_DATABASE_PASSWORD=",
+                        "--clieman.EMAIL_USERNAME=benchmark@localhost",
+                        "--clieman.EMAIL_PASSWORD=secret",
+                        "--spring.mail.host=localhost",
+                        "--spring.mail.port=" + unresponsiveMailServer.getLocalPort(),
+                        "--spring.mail.properties.mail.smtp.starttls.enable=false",
+                        "--spring.mail.properties.mail.smtp.connectiontimeout=" + MAIL_TIMEOUT_MILLIS,
+                        "--spring.mail.properties.mail.smtp.timeout=" + MAIL_TIMEOUT_MILLIS,
+                        "--logging.level.root=WARN");
+        return context;
+    }
+
+    @TearDown(Level.Iteration)
+    public void shutdown() {
+        if (context != null) context.close();
+        context = null;
+    }
+}
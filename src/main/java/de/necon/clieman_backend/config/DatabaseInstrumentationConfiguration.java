@@ -0,0 +1,46 @@
+package de.necon.clieman_backend.config;
+
+import de.necon.clieman_backend.util.InstrumentedDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * If enabled, the data source is wrapped by an InstrumentedDataSource, which logs slow statements, and hibernate
+ * collects statistics (see DatabaseStatisticsService). Both can be inspected at /admin/db-stats.
+ */
+@Configuration
+public class DatabaseInstrumentationConfiguration {
+
+    public static final String ENABLED_PROPERTY = "clieman.db-instrumentation.enabled";
+
+    /**
+     * Statements taking at least this long are logged as slow.
+     */
+    public static final String SLOW_STATEMENT_THRESHOLD_PROPERTY =
+            "clieman.db-instrumentation.slow-statement-threshold-millis";
+
+    private static final long DEFAULT_SLOW_STATEMENT_THRESHOLD = 500;
+
+    public static boolean isEnabled(Environment env) {
+        return env.getProperty(ENABLED_PROPERTY, Boolean.class, false);
+    }
+
+    @Bean
+    static BeanPostProcessor instrumentedDataSourcePostProcessor(Environment env) {
+        var enabled = isEnabled(env);
+        var threshold = env.getProperty(SLOW_STATEMENT_THRESHOLD_PROPERTY, Long.class,
+                DEFAULT_SLOW_STATEMENT_THRESHOLD);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!enabled || !(bean instanceof DataSource) || bean instanceof InstrumentedDataSource) return bean;
+                return new InstrumentedDataSource((DataSource) bean, threshold);
+            }
+        };
+    }
+}
@@ -3,17 +3,67 @@ package de.necon.clieman_backend.config;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 
+/**
+ * Configures the object mappers of the supported formats. Besides JSON, requests and responses can be encoded with
+ * Smile (application/x-jackson-smile) and CBOR (application/cbor); the format is negotiated with the Accept and
+ * Content-Type headers. All formats share the same settings and serializers.
+ */
 @Configuration
 public class JacksonConfiguration {
 
+    /**
+     * If true, the mappers use bytecode generated accessors instead of reflection (jackson afterburner module).
+     */
+    public static final String AFTERBURNER_PROPERTY = "clieman.jackson.afterburner";
+
+    private final boolean afterburner;
+
+    public JacksonConfiguration(Environment env) {
+        afterburner = env.getProperty(AFTERBURNER_PROPERTY, Boolean.class, false);
+    }
+
     @Bean
     public ObjectMapper objectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
+        return configure(new ObjectMapper(), afterburner);
+    }
+
+    /**
+     * Note: Replaces the default smile converter of spring mvc, which would use a differently configured mapper.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter(configure(new ObjectMapper(new SmileFactory()),
+                afterburner));
+    }
+
+    /**
+     * Note: Replaces the default CBOR converter of spring mvc, which would use a differently configured mapper.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(configure(new ObjectMapper(new CBORFactory()),
+                afterburner));
+    }
+
+    /**
+     * Applies the settings shared by the mappers of all formats.
+     * @param mapper The mapper to configure.
+     * @param afterburner Specifies whether the afterburner module should be registered.
+     * @return The given mapper.
+     */
+    public static ObjectMapper configure(ObjectMapper mapper, boolean afterburner) {
         mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
         mapper.enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (afterburner) mapper.registerModule(new AfterburnerModule());
 
         return mapper;
     }
@@ -0,0 +1,156 @@
+package de.necon.clieman_backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.javatuples.Pair;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.repository.Repository;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the latency of service and repository methods. Every public method of a bean whose class name ends with
+ * 'ServiceImpl' is timed with the timer SERVICE_TIMER, every repository method with REPOSITORY_TIMER. Both are
+ * tagged with the class, the method and the thrown exception (or 'none').
+ * <p>
+ * The request latencies (http.server.requests) and the connection pool wait time (hikaricp.connections.acquire)
+ * are recorded by spring boot; all metrics are exposed at /actuator/prometheus to the scraper configured with
+ * clieman.metrics.scraper (see WebSecurity.MetricsScraperSecurity).
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    public static final String SERVICE_TIMER = "clieman.service";
+    public static final String REPOSITORY_TIMER = "clieman.repository";
+
+    /**
+     * Specifies whether service and repository methods are timed.
+     */
+    public static final String METHOD_TIMERS_PROPERTY = "clieman.metrics.method-timers";
+
+    /**
+     * Note: Is static, so that the post processor is created before (and independently of) the other beans of this
+     * configuration. The meter registry is looked up on first use, as it isn't available that early.
+     */
+    @Bean
+    static BeanPostProcessor methodTimerPostProcessor(ObjectProvider<MeterRegistry> registry, Environment env) {
+        return new MethodTimerPostProcessor(registry, env.getProperty(METHOD_TIMERS_PROPERTY, Boolean.class, true));
+    }
+
+    private static class MethodTimerPostProcessor implements BeanPostProcessor {
+
+        private final ObjectProvider<MeterRegistry> registry;
+        private final boolean enabled;
+
+        MethodTimerPostProcessor(ObjectProvider<MeterRegistry> registry, boolean enabled) {
+            this.registry = registry;
+            this.enabled = enabled;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!enabled) return bean;
+
+            String timerName;
+            String className;
+            if (bean instanceof Repository) {
+                timerName = REPOSITORY_TIMER;
+                className = getRepositoryName(bean, beanName);
+            } else if (AopUtils.getTargetClass(bean).getSimpleName().endsWith("ServiceImpl")) {
+                timerName = SERVICE_TIMER;
+                className = AopUtils.getTargetClass(bean).getSimpleName();
+            } else {
+                return bean;
+            }
+
+            var timer = new MethodTimer(registry, timerName, className);
+
+            // transactional services and repositories are proxies already, the timer is added in front of the
+            // other interceptors, so that it includes e.g. the commit.
+            if (bean instanceof Advised && !((Advised) bean).isFrozen()) {
+                ((Advised) bean).addAdvice(0, timer);
+                return bean;
+            }
+
+            // Note: Some services are injected by their class (e.g. UserDetailsServiceImpl)
+            var proxyFactory = new ProxyFactory(bean);
+            proxyFactory.setProxyTargetClass(true);
+            proxyFactory.addAdvice(timer);
+            return proxyFactory.getProxy(bean.getClass().getClassLoader());
+        }
+
+        /**
+         * @return The simple name of the repository interface (e.g. ClientRepository) or the bean name if it cannot
+         * be determined.
+         */
+        private static String getRepositoryName(Object bean, String beanName) {
+            for (var type : ClassUtils.getAllInterfaces(bean)) {
+                if (Repository.class.isAssignableFrom(type) &&
+                        type.getName().startsWith("de.necon.clieman_backend.")) {
+                    return type.getSimpleName();
+                }
+            }
+            return beanName;
+        }
+    }
+
+    /**
+     * Note: The timers are built once per method and exception. Building a timer on every call allocates its tags
+     * and id and looks it up in the registry.
+     */
+    private static class MethodTimer implements MethodInterceptor {
+
+        private static final String NO_EXCEPTION = "none";
+
+        private final ObjectProvider<MeterRegistry> registry;
+        private final String timerName;
+        private final String className;
+        private final Map<Pair<Method, String>, Timer> timers = new ConcurrentHashMap<>();
+
+        MethodTimer(ObjectProvider<MeterRegistry> registry, String timerName, String className) {
+            this.registry = registry;
+            this.timerName = timerName;
+            this.className = className;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            var meterRegistry = registry.getIfAvailable();
+            var method = invocation.getMethod();
+            if (meterRegistry == null || method.getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+
+            var sample = Timer.start(meterRegistry);
+            var exception = NO_EXCEPTION;
+            try {
+                return invocation.proceed();
+            } catch (Throwable t) {
+                exception = t.getClass().getSimpleName();
+                throw t;
+            } finally {
+                sample.stop(getTimer(meterRegistry, method, exception));
+            }
+        }
+
+        private Timer getTimer(MeterRegistry meterRegistry, Method method, String exception) {
+            return timers.computeIfAbsent(Pair.with(method, exception), key -> Timer.builder(timerName)
+                    .tag("class", className)
+                    .tag("method", method.getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
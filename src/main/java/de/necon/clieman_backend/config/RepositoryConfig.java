@@ -6,4 +6,26 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 public final class RepositoryConfig {
 
     public static final int MAX_STRING_SIZE = 100;
+
+    /**
+     * The default and maximum number of items returned by a single page of a paginated listing.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * The number of rows fetched per database round trip when streaming query results. This is also the
+     * number of streamed entities after which the persistence context is cleared.
+     */
+    public static final int STREAM_FETCH_SIZE = 200;
+
+    /**
+     * The maximum number of lazy collections (e.g. the clients of events) initialized together with one query.
+     */
+    public static final int BATCH_FETCH_SIZE = 100;
+
+    /**
+     * The maximum number of operations of a single batch request.
+     */
+    public static final int MAX_BATCH_SIZE = 1000;
 }
@@ -10,6 +10,19 @@ import javax.annotation.PostConstruct;
 @Configuration
 public class SecurityConstants {
     public static final String SECRET_ENV_VARIABLE = "clieman.JWT_SECRET";
+
+    /**
+     * The role of the users, who may access the /admin endpoints (see User.isAdmin).
+     */
+    public static final String ADMIN_ROLE = "ADMIN";
+
+    /**
+     * The credentials of the prometheus scraper, who authenticates with basic auth at /actuator/prometheus.
+     * The password is stored as bcrypt hash. Without credentials the endpoint isn't accessible at all.
+     */
+    public static final String METRICS_SCRAPER_USERNAME_PROPERTY = "clieman.metrics.scraper.username";
+    public static final String METRICS_SCRAPER_PASSWORD_HASH_PROPERTY = "clieman.metrics.scraper.password-hash";
+    public static final String METRICS_ROLE = "METRICS";
     private static String secret;
 
     @Autowired
@@ -1,8 +1,11 @@
 package de.necon.clieman_backend.config;
 
 import org.apache.catalina.connector.Connector;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
 
@@ -12,6 +15,19 @@ public class ServerConfig {
     @Autowired
     Environment env;
 
+    /**
+     * Tomcat doesn't compress responses with a strong ETag by default (noCompressionStrongETag). Clients compare the
+     * ETags weakly (If-None-Match), so the compression configured by server.compression applies to all responses.
+     */
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> compressionCustomizer() {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            if (connector.getProtocolHandler() instanceof AbstractHttp11Protocol) {
+                ((AbstractHttp11Protocol<?>) connector.getProtocolHandler()).setNoCompressionStrongETag(false);
+            }
+        });
+    }
+
     /**
      * A custom tomcat configuration that adds http->https redirection
      */
@@ -37,10 +37,14 @@ public class ServiceErrorMessages {
     public static final String EVENT_ALREADY_EXISTS = "EventAlreadyExists";
     public static final String EVENT_NOT_FOUND = "EventNotFound";
     public static final String EVENT_NOT_VALID = "EventNotValid";
+    public static final String INVALID_DATE_RANGE = "InvalidDateRange";
 
     public static final String OLD_PASSWORD_NOT_MATCHING = "OldPasswordNotMatching";
     public static final String NEW_PASSWORD_CONFIRMATION_NOT_MATCHING = "NewPasswordConfirmationNotMatching";
     public static final String MALFORMED_DATA = "MalformedData";
+    public static final String INVALID_CURSOR = "InvalidCursor";
+    public static final String INVALID_PAGE_LIMIT = "InvalidPageLimit";
+    public static final String INVALID_BATCH_SIZE = "InvalidBatchSize";
 
     public static final String USERNAME_INVALID = "UsernameInvalid";
 }
@@ -7,10 +7,13 @@ import de.necon.clieman_backend.security.JWTAuthenticationFilter;
 import de.necon.clieman_backend.security.JWTAuthorizationFilter;
 import de.necon.clieman_backend.security.MyBasicAuthenticationEntryPoint;
 import de.necon.clieman_backend.service.JWTTokenService;
+import de.necon.clieman_backend.service.UserCache;
 import de.necon.clieman_backend.service.UserDetailsServiceImpl;
 import de.necon.clieman_backend.util.ResponseWriter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.core.env.Environment;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -38,9 +41,10 @@ public class WebSecurity extends WebSecurityConfigurerAdapter {
     private final ResponseWriter responseWriter;
     private final UserRepository userRepository;
     private final ExceptionToMessageMapper exceptionToMessageMapper;
+    private final UserCache userCache;
 
     private final Environment env;
-
+    private final MeterRegistry meterRegistry;
 
     public WebSecurity(MyBasicAuthenticationEntryPoint authenticationEntryPoint,
                        UserDetailsServiceImpl userDetailsService,
@@ -48,14 +52,18 @@ public class WebSecurity extends WebSecurityConfigurerAdapter {
                        ResponseWriter responseWriter,
                        UserRepository userRepository,
                        ExceptionToMessageMapper exceptionToMessageMapper,
-                       Environment env) {
+                       UserCache userCache,
+                       Environment env,
+                       MeterRegistry meterRegistry) {
         this.authenticationEntryPoint = authenticationEntryPoint;
         this.userDetailsService = userDetailsService;
         this.objectMapper = objectMapper;
         this.responseWriter = responseWriter;
         this.userRepository = userRepository;
         this.exceptionToMessageMapper = exceptionToMessageMapper;
+        this.userCache = userCache;
         this.env = env;
+        this.meterRegistry = meterRegistry;
     }
 
 
@@ -79,6 +87,8 @@ public class WebSecurity extends WebSecurityConfigurerAdapter {
 
         http.cors().and().csrf().disable().authorizeRequests()
                 .antMatchers("/public/**").permitAll()
+                .antMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                .antMatchers("/admin/**").hasRole(SecurityConstants.ADMIN_ROLE)
                 .anyRequest().authenticated()
 
                 .and()
@@ -130,7 +140,50 @@ public class WebSecurity extends WebSecurityConfigurerAdapter {
 
     @Bean
     public JWTTokenService jwtTokenService() {
-        var service = new  JWTTokenService(userRepository, env);
+        var service = new  JWTTokenService(userCache, env, meterRegistry);
         return service;
     }
-}
\ No newline at end of file
+
+    /**
+     * Secures the scrape endpoint of prometheus (see MetricsConfiguration). The metrics reveal the request uris,
+     * the service and repository methods and the connection pool state, so only the scraper configured with
+     * clieman.metrics.scraper may read them - with basic auth, as prometheus can't log in for a JWT.
+     */
+    @Configuration
+    @Order(1)
+    public static class MetricsScraperSecurity extends WebSecurityConfigurerAdapter {
+
+        private final Environment env;
+
+        public MetricsScraperSecurity(Environment env) {
+            this.env = env;
+        }
+
+        @Override
+        protected void configure(HttpSecurity http) throws Exception {
+            http.requestMatcher(new AntPathRequestMatcher("/actuator/prometheus"))
+                    .csrf().disable()
+                    .authorizeRequests().anyRequest().hasRole(SecurityConstants.METRICS_ROLE)
+
+                    .and()
+                    .httpBasic()
+
+                    .and()
+                    .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS);
+        }
+
+        @Override
+        protected void configure(AuthenticationManagerBuilder auth) throws Exception {
+            var users = auth.inMemoryAuthentication()
+                    .passwordEncoder(new BCryptPasswordEncoder());
+
+            var username = env.getProperty(SecurityConstants.METRICS_SCRAPER_USERNAME_PROPERTY, String.class, "");
+            var passwordHash = env.getProperty(SecurityConstants.METRICS_SCRAPER_PASSWORD_HASH_PROPERTY,
+                    String.class, "");
+
+            if (!username.isBlank() && !passwordHash.isBlank()) {
+                users.withUser(username).password(passwordHash).roles(SecurityConstants.METRICS_ROLE);
+            }
+        }
+    }
+}
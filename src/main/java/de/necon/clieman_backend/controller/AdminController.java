@@ -0,0 +1,34 @@
+package de.necon.clieman_backend.controller;
+
+import de.necon.clieman_backend.network.DatabaseStatisticsDto;
+import de.necon.clieman_backend.service.DatabaseStatisticsService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Endpoints for operating the server. Only admin users have access (see User.isAdmin).
+ */
+@RestController
+public class AdminController {
+
+    private final DatabaseStatisticsService databaseStatisticsService;
+
+    public AdminController(DatabaseStatisticsService databaseStatisticsService) {
+        this.databaseStatisticsService = databaseStatisticsService;
+    }
+
+    /**
+     * Provides the statement counts, the entity load and fetch counts and the cache hit ratios collected since the
+     * start or the last reset.
+     */
+    @GetMapping("/admin/db-stats")
+    DatabaseStatisticsDto getDatabaseStatistics() {
+        return databaseStatisticsService.getStatistics();
+    }
+
+    @PostMapping("/admin/db-stats/reset")
+    void resetDatabaseStatistics() {
+        databaseStatisticsService.resetStatistics();
+    }
+}
@@ -1,34 +1,94 @@
 package de.necon.clieman_backend.controller;
 
+import de.necon.clieman_backend.exception.ServiceError;
 import de.necon.clieman_backend.model.Client;
 import de.necon.clieman_backend.model.User;
+import de.necon.clieman_backend.network.BatchOperationDto;
+import de.necon.clieman_backend.network.BatchResultDto;
+import de.necon.clieman_backend.network.PageDto;
 import de.necon.clieman_backend.service.ClientService;
+import de.necon.clieman_backend.util.PageCursor;
+import de.necon.clieman_backend.util.ResponseWriter;
+import org.javatuples.Pair;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.transaction.Transactional;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+
+import static de.necon.clieman_backend.config.RepositoryConfig.DEFAULT_PAGE_SIZE;
+import static de.necon.clieman_backend.config.ServiceErrorMessages.MALFORMED_DATA;
 
 @RestController
 @Transactional
 public class ClientController {
 
     private final ClientService clientService;
+    private final ResponseWriter responseWriter;
 
-    public ClientController(ClientService clientService) {
+    public ClientController(ClientService clientService, ResponseWriter responseWriter) {
         this.clientService = clientService;
+        this.responseWriter = responseWriter;
     }
 
+    /**
+     * Provides all clients of the user. The version of the clients is sent as weak ETag; if it matches the
+     * If-None-Match header of the request, 304 is returned without loading any client.
+     * The JSON, Smile and CBOR responses of a version are equivalent, so they share the weak ETag (which, other than
+     * a strong one, doesn't prevent compression) and caches keep them apart by the Accept header.
+     */
     @GetMapping("/clients/getAll")
-    List<Client> getClients() {
+    List<Client> getClients(WebRequest request, final HttpServletResponse response) {
         var user = (User)SecurityContextHolder.getContext().getAuthentication().getDetails();
+
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+        // the version is read before the clients, so a concurrent change can only lead to an outdated ETag (and an
+        // unnecessary download with the next request), never to outdated clients.
+        if (request.checkNotModified("W/\"" + clientService.getClientsVersion(user) + "\"")) return null;
         return  clientService.getClientsOfUser(user);
     }
 
+    /**
+     * Writes all clients of the user as a JSON array. Other than the getAll endpoint, the clients are serialized as soon
+     * as they are read from the database, so memory usage doesn't depend on the number of clients.
+     */
+    @GetMapping("/clients/stream")
+    void streamClients(final HttpServletResponse response) throws IOException {
+        var user = (User)SecurityContextHolder.getContext().getAuthentication().getDetails();
+        responseWriter.<Client>writeOkStream(consumer -> clientService.forEachClientOfUser(user, consumer), response);
+    }
+
+    /**
+     * Provides a page of the clients of the user ordered by their id.
+     * @param after The cursor returned by the previous page or null for the first page.
+     * @param limit The maximum number of clients of the page.
+     */
+    @GetMapping("/clients/getPage")
+    PageDto<Client> getClientPage(@RequestParam(value = "after", required = false) String after,
+                                  @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        var user = (User)SecurityContextHolder.getContext().getAuthentication().getDetails();
+        var clients = clientService.getClientsOfUser(user, PageCursor.decode(after), limit);
+
+        String nextCursor = null;
+        if (clients.size() == limit) {
+            nextCursor = PageCursor.encode(clients.get(limit - 1).getId().getId());
+        }
+
+        return new PageDto<>(clients, nextCursor);
+    }
+
     @PostMapping("/clients/add")
     Client addClient(@Valid @RequestBody Client client) {
         var user = (User)SecurityContextHolder.getContext().getAuthentication().getDetails();
@@ -51,4 +111,27 @@ public class ClientController {
         clientService.updateClient(client);
         return client;
     }
-}
\ No newline at end of file
+
+    /**
+     * Applies a list of add, update and remove operations in one transaction.
+     * @return For each operation the id of its item and the errors. An operation succeeded if it has no errors.
+     */
+    @PostMapping("/clients/batch")
+    List<BatchResultDto> clientBatch(@RequestBody List<BatchOperationDto<Client>> operations) {
+        var user = (User) SecurityContextHolder.getContext().getAuthentication().getDetails();
+        if (operations == null) throw new ServiceError(MALFORMED_DATA);
+
+        var errors = clientService.applyBatch(user, operations.stream()
+                .map(o -> new Pair<>(o.getOperation(), o.getItem()))
+                .collect(Collectors.toList()));
+
+        List<BatchResultDto> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); ++i) {
+            var item = operations.get(i).getItem();
+            var id = item != null && item.getId() != null ? item.getId().getId() : null;
+            results.add(new BatchResultDto(id, errors.get(i)));
+        }
+
+        return results;
+    }
+}
@@ -1,37 +1,130 @@
 package de.necon.clieman_backend.controller;
 
+import de.necon.clieman_backend.exception.ServiceError;
 import de.necon.clieman_backend.model.Event;
+import de.necon.clieman_backend.model.EventView;
 import de.necon.clieman_backend.model.User;
+import de.necon.clieman_backend.network.BatchOperationDto;
+import de.necon.clieman_backend.network.BatchResultDto;
+import de.necon.clieman_backend.network.PageDto;
 import de.necon.clieman_backend.service.EventService;
+import de.necon.clieman_backend.util.PageCursor;
+import de.necon.clieman_backend.util.ResponseWriter;
+import org.javatuples.Pair;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.transaction.Transactional;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.util.Date;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+
+import static de.necon.clieman_backend.config.RepositoryConfig.DEFAULT_PAGE_SIZE;
+import static de.necon.clieman_backend.config.ServiceErrorMessages.MALFORMED_DATA;
 
 @RestController
 @Transactional
 public class EventController {
 
     private final EventService eventService;
+    private final ResponseWriter responseWriter;
 
     @Autowired
     private ApplicationEventPublisher eventPublisher;
 
-    public EventController(EventService eventService) {
+    public EventController(EventService eventService, ResponseWriter responseWriter) {
         this.eventService = eventService;
+        this.responseWriter = responseWriter;
     }
 
+    /**
+     * Provides all events of the user. The version of the events is sent as weak ETag; if it matches the
+     * If-None-Match header of the request, 304 is returned without loading any event.
+     * The ETag is shared by the JSON, Smile and CBOR responses (see ClientController.getClients).
+     */
     @GetMapping("/events/getAll")
-    List<Event> getEvents() {
+    List<EventView> getEvents(WebRequest request, final HttpServletResponse response) {
         var user = (User)SecurityContextHolder.getContext().getAuthentication().getDetails();
-        return  eventService.getEventsOfUser(user);
+
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+        // the version is read before the events (see ClientController.getClients)
+        if (request.checkNotModified("W/\"" + eventService.getEventsVersion(user) + "\"")) return null;
+        return  eventService.getEventViewsOfUser(user);
+    }
+
+    /**
+     * Provides the events overlapping a time window.
+     * @param from The begin of the time window in milliseconds since the epoch (same format as the event dates).
+     * @param to The end of the time window in milliseconds since the epoch.
+     */
+    @GetMapping("/events/range")
+    List<EventView> getEventsInRange(@RequestParam("from") long from, @RequestParam("to") long to) {
+        var user = (User)SecurityContextHolder.getContext().getAuthentication().getDetails();
+        return  eventService.getEventViewsOfUserInRange(user, new Date(from), new Date(to));
+    }
+
+    /**
+     * Writes all events of the user as a JSON array. Other than the getAll endpoint, the events are serialized as soon
+     * as they are read from the database, so memory usage doesn't depend on the number of events.
+     */
+    @GetMapping("/events/stream")
+    void streamEvents(final HttpServletResponse response) throws IOException {
+        var user = (User)SecurityContextHolder.getContext().getAuthentication().getDetails();
+        responseWriter.<Event>writeOkStream(consumer -> eventService.forEachEventOfUser(user, consumer), response);
+    }
+
+    /**
+     * Provides a page of the events of the user ordered by their id.
+     * @param after The cursor returned by the previous page or null for the first page.
+     * @param limit The maximum number of events of the page.
+     */
+    @GetMapping("/events/getPage")
+    PageDto<EventView> getEventPage(@RequestParam(value = "after", required = false) String after,
+                                @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        var user = (User)SecurityContextHolder.getContext().getAuthentication().getDetails();
+        var events = eventService.getEventViewsOfUser(user, PageCursor.decode(after), limit);
+
+        String nextCursor = null;
+        if (events.size() == limit) {
+            nextCursor = PageCursor.encode(events.get(limit - 1).getId());
+        }
+
+        return new PageDto<>(events, nextCursor);
+    }
+
+    /**
+     * Provides a page of the events referencing a client ordered by their id.
+     * @param id The id of the client.
+     * @param after The cursor returned by the previous page or null for the first page.
+     * @param limit The maximum number of events of the page.
+     */
+    @GetMapping("/clients/{id}/events")
+    PageDto<EventView> getEventPageOfClient(@PathVariable("id") String id,
+                                            @RequestParam(value = "after", required = false) String after,
+                                            @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        var user = (User)SecurityContextHolder.getContext().getAuthentication().getDetails();
+        var events = eventService.getEventViewsOfClient(user, id, PageCursor.decode(after), limit);
+
+        String nextCursor = null;
+        if (events.size() == limit) {
+            nextCursor = PageCursor.encode(events.get(limit - 1).getId());
+        }
+
+        return new PageDto<>(events, nextCursor);
     }
 
     @PostMapping("/events/add")
@@ -54,4 +147,27 @@ public class EventController {
         event.setUser(user);
         eventService.updateEvent(event);
     }
-}
\ No newline at end of file
+
+    /**
+     * Applies a list of add, update and remove operations in one transaction.
+     * @return For each operation the id of its item and the errors. An operation succeeded if it has no errors.
+     */
+    @PostMapping("/events/batch")
+    List<BatchResultDto> eventBatch(@RequestBody List<BatchOperationDto<Event>> operations) {
+        var user = (User) SecurityContextHolder.getContext().getAuthentication().getDetails();
+        if (operations == null) throw new ServiceError(MALFORMED_DATA);
+
+        var errors = eventService.applyBatch(user, operations.stream()
+                .map(o -> new Pair<>(o.getOperation(), o.getItem()))
+                .collect(Collectors.toList()));
+
+        List<BatchResultDto> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); ++i) {
+            var item = operations.get(i).getItem();
+            var id = item != null && item.getId() != null ? item.getId().getId() : null;
+            results.add(new BatchResultDto(id, errors.get(i)));
+        }
+
+        return results;
+    }
+}
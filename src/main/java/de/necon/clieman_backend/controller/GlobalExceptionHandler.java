@@ -6,10 +6,12 @@ import de.necon.clieman_backend.util.MessageExtractor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import javax.validation.ConstraintViolationException;
 import java.util.List;
@@ -49,4 +51,11 @@ class GlobalExceptionHandler {
             HttpMessageNotReadableException ex) {
         return new ErrorListDto(List.of(MALFORMED_DATA));
     }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler({MissingServletRequestParameterException.class, MethodArgumentTypeMismatchException.class})
+    @ResponseBody
+    public ErrorListDto handleInvalidRequestParameter(Exception ex) {
+        return new ErrorListDto(List.of(MALFORMED_DATA));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package de.necon.clieman_backend.controller;
+
+import de.necon.clieman_backend.model.ChangeSet;
+import de.necon.clieman_backend.model.User;
+import de.necon.clieman_backend.service.SyncService;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class SyncController {
+
+    private final SyncService syncService;
+
+    public SyncController(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    /**
+     * Provides the clients and events that were added, updated or deleted since the previous sync.
+     * @param since The watermark returned by the previous sync or null for retrieving all clients and events.
+     */
+    @GetMapping("/sync")
+    ChangeSet sync(@RequestParam(value = "since", required = false) Long since) {
+        var user = (User)SecurityContextHolder.getContext().getAuthentication().getDetails();
+        return syncService.getChanges(user, since);
+    }
+}
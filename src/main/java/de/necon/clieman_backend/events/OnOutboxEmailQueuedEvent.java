@@ -0,0 +1,23 @@
+package de.necon.clieman_backend.events;
+
+import de.necon.clieman_backend.model.OutboxEmail;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Is published when an email was added to the outbox.
+ */
+public class OnOutboxEmailQueuedEvent extends ApplicationEvent {
+
+    /**
+     * Create a new {@code OnOutboxEmailQueuedEvent}.
+     *
+     * @param email the queued email (never {@code null})
+     */
+    public OnOutboxEmailQueuedEvent(OutboxEmail email) {
+        super(email);
+    }
+
+    public OutboxEmail getEmail() {
+        return (OutboxEmail) getSource();
+    }
+}
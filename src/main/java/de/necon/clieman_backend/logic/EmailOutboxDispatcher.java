@@ -0,0 +1,144 @@
+package de.necon.clieman_backend.logic;
+
+import de.necon.clieman_backend.events.OnOutboxEmailQueuedEvent;
+import de.necon.clieman_backend.model.OutboxEmail;
+import de.necon.clieman_backend.service.EmailOutboxService;
+import de.necon.clieman_backend.service.EmailService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the emails of the outbox in the background.
+ * <p>
+ * A dispatch run is triggered after a transaction that queued an email has committed and periodically (for retries
+ * and emails queued on other nodes). Dispatch runs are executed by a bounded pool of workers. If all workers are
+ * busy and a run is already pending, further triggers are dropped, since the pending run picks up all due emails
+ * anyway. Each run sends the due emails in batches over a single SMTP connection.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    public static final String WORKERS_PROPERTY = "clieman.email-outbox.workers";
+    public static final String BATCH_SIZE_PROPERTY = "clieman.email-outbox.batch-size";
+
+    private static final int DEFAULT_WORKERS = 2;
+    private static final int DEFAULT_BATCH_SIZE = 20;
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final EmailOutboxService outboxService;
+    private final EmailService emailService;
+    private final int batchSize;
+    private final ThreadPoolExecutor executor;
+
+    public EmailOutboxDispatcher(EmailOutboxService outboxService, EmailService emailService, Environment env) {
+        this.outboxService = outboxService;
+        this.emailService = emailService;
+        this.batchSize = env.getProperty(BATCH_SIZE_PROPERTY, Integer.class, DEFAULT_BATCH_SIZE);
+
+        var workers = env.getProperty(WORKERS_PROPERTY, Integer.class, DEFAULT_WORKERS);
+        var threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1),
+                runnable -> {
+                    var thread = new Thread(runnable, "email-outbox-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @TransactionalEventListener
+    public void onEmailQueued(OnOutboxEmailQueuedEvent event) {
+        trigger();
+    }
+
+    @Scheduled(fixedDelayString = "${clieman.email-outbox.poll-interval-millis:10000}")
+    public void poll() {
+        trigger();
+    }
+
+    /**
+     * Triggers an asynchronous dispatch run.
+     */
+    public void trigger() {
+        executor.execute(() -> {
+            try {
+                dispatchPendingMessages();
+            } catch (Exception e) {
+                logger.error("Dispatching the email outbox failed", e);
+            }
+        });
+    }
+
+    /**
+     * Sends all due emails of the outbox on the calling thread.
+     * @return The number of successfully sent emails.
+     */
+    public int dispatchPendingMessages() {
+        int sentCount = 0;
+        List<OutboxEmail> emails;
+
+        do {
+            emails = outboxService.claimDueMessages(batchSize);
+            if (emails.isEmpty()) break;
+            sentCount += send(emails);
+        } while (emails.size() == batchSize);
+
+        return sentCount;
+    }
+
+    private int send(List<OutboxEmail> emails) {
+
+        var messages = new IdentityHashMap<SimpleMailMessage, Long>();
+        for (var email : emails) {
+            var message = new SimpleMailMessage();
+            message.setTo(email.getRecipient());
+            message.setSubject(email.getSubject());
+            message.setText(email.getText());
+            messages.put(message, email.getId());
+        }
+
+        var failures = new HashMap<Long, Exception>();
+        try {
+            emailService.sendMessages(new ArrayList<>(messages.keySet()));
+        } catch (MailSendException e) {
+            e.getFailedMessages().forEach((message, exception) -> {
+                var id = messages.get(message);
+                if (id != null) failures.put(id, exception);
+            });
+            // no information about single messages -> all have failed
+            if (failures.isEmpty()) messages.values().forEach(id -> failures.put(id, e));
+        } catch (MailException e) {
+            messages.values().forEach(id -> failures.put(id, e));
+        }
+
+        var sent = new ArrayList<Long>();
+        for (var id : messages.values()) {
+            if (!failures.containsKey(id)) sent.add(id);
+        }
+
+        outboxService.markSent(sent);
+        outboxService.markFailed(failures);
+        return sent.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -2,7 +2,7 @@ package de.necon.clieman_backend.logic;
 
 import de.necon.clieman_backend.events.OnSendVerificationCodeEvent;
 import de.necon.clieman_backend.model.User;
-import de.necon.clieman_backend.service.EmailService;
+import de.necon.clieman_backend.service.EmailOutboxService;
 import de.necon.clieman_backend.service.UserService;
 import de.necon.clieman_backend.service.VerificationCodeService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,7 +23,7 @@ public class SendVerificationCodeListener implements
     private MessageSource messages;
 
     @Autowired
-    private EmailService emailService;
+    private EmailOutboxService emailOutboxService;
 
     @Autowired
     private VerificationCodeService codeService;
@@ -35,10 +35,9 @@ public class SendVerificationCodeListener implements
         String token = codeService.generateVerificationCode();
 
 
-        userService.deleteExistingVerificationToken(user);
-        var verificationToken = userService.createVerificationToken(user, token);
+        var verificationToken = userService.renewVerificationToken(user, token);
 
-        verificationToken.getToken();
-        emailService.sendVerificationMessage(verificationToken);
+        // the email is sent after the transaction has committed
+        emailOutboxService.queueVerificationMessage(verificationToken);
     }
 }
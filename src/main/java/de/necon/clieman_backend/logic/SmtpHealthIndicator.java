@@ -0,0 +1,100 @@
+package de.necon.clieman_backend.logic;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.core.env.Environment;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.mail.MessagingException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reports whether the mail server is reachable (health component 'smtp', part of the readiness group).
+ * <p>
+ * The connection is checked periodically in the background, so neither the startup nor a health request has to wait
+ * for the mail server. A check that doesn't finish within the timeout reports the mail server as down. Until the
+ * first check has finished the status is unknown.
+ */
+@Component
+public class SmtpHealthIndicator implements HealthIndicator {
+
+    public static final String TIMEOUT_PROPERTY = "clieman.smtp-health.timeout-millis";
+
+    private static final long DEFAULT_TIMEOUT = 5000;
+
+    private static final Logger logger = LoggerFactory.getLogger(SmtpHealthIndicator.class);
+
+    private final JavaMailSender mailSender;
+    private final long timeout;
+    private final ExecutorService executor;
+    private final AtomicBoolean checking = new AtomicBoolean();
+
+    private volatile Health health = Health.unknown().withDetail("reason", "Connection not checked yet").build();
+
+    public SmtpHealthIndicator(JavaMailSender mailSender, Environment env) {
+        this.mailSender = mailSender;
+        this.timeout = env.getProperty(TIMEOUT_PROPERTY, Long.class, DEFAULT_TIMEOUT);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "smtp-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Health health() {
+        return health;
+    }
+
+    /**
+     * Starts a check of the connection to the mail server, if no check is running.
+     * @return A future that completes when the check has finished.
+     */
+    @Scheduled(initialDelayString = "${clieman.smtp-health.initial-delay-millis:0}",
+            fixedDelayString = "${clieman.smtp-health.interval-millis:60000}")
+    public CompletableFuture<Health> check() {
+
+        if (!checking.compareAndSet(false, true)) return CompletableFuture.completedFuture(health);
+
+        return CompletableFuture.runAsync(this::testConnection, executor)
+                .orTimeout(timeout, TimeUnit.MILLISECONDS)
+                .handle((result, e) -> {
+                    if (e == null) {
+                        health = Health.up().build();
+                    } else {
+                        var cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        logger.warn("Mail server is not reachable: " + cause);
+                        health = Health.down().withException(cause).build();
+                    }
+
+                    checking.set(false);
+                    return health;
+                });
+    }
+
+    private void testConnection() {
+        if (!(mailSender instanceof JavaMailSenderImpl)) return;
+
+        try {
+            ((JavaMailSenderImpl) mailSender).testConnection();
+        } catch (MessagingException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,48 @@
+package de.necon.clieman_backend.logic;
+
+import de.necon.clieman_backend.service.SyncService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically removes the tombstones of deleted clients and events that are older than the retention period of the
+ * delta sync. Tombstones are removed in batches (each batch in its own transaction).
+ */
+@Component
+public class TombstoneSweeper {
+
+    public static final String BATCH_SIZE_PROPERTY = "clieman.sync.tombstone-purge-batch-size";
+
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final Logger logger = LoggerFactory.getLogger(TombstoneSweeper.class);
+
+    private final SyncService syncService;
+    private final int batchSize;
+
+    public TombstoneSweeper(SyncService syncService, Environment env) {
+        this.syncService = syncService;
+        this.batchSize = env.getProperty(BATCH_SIZE_PROPERTY, Integer.class, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Removes all tombstones that are older than the retention period.
+     * @return The number of removed tombstones.
+     */
+    @Scheduled(fixedDelayString = "${clieman.sync.tombstone-purge-interval-millis:3600000}")
+    public int purgeTombstones() {
+        int count = 0;
+        int removed;
+
+        do {
+            removed = syncService.purgeTombstones(batchSize);
+            count += removed;
+        } while (removed == batchSize);
+
+        if (count > 0) logger.info("Removed " + count + " tombstones");
+        return count;
+    }
+}
@@ -0,0 +1,48 @@
+package de.necon.clieman_backend.logic;
+
+import de.necon.clieman_backend.service.VerificationTokenStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically removes expired verification tokens. Tokens are removed in batches (each batch in its own
+ * transaction), so that a large backlog of expired tokens doesn't lock the token table for long.
+ */
+@Component
+public class VerificationTokenSweeper {
+
+    public static final String BATCH_SIZE_PROPERTY = "clieman.verification-token-store.purge-batch-size";
+
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificationTokenSweeper.class);
+
+    private final VerificationTokenStore tokenStore;
+    private final int batchSize;
+
+    public VerificationTokenSweeper(VerificationTokenStore tokenStore, Environment env) {
+        this.tokenStore = tokenStore;
+        this.batchSize = env.getProperty(BATCH_SIZE_PROPERTY, Integer.class, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Removes all expired tokens.
+     * @return The number of removed tokens.
+     */
+    @Scheduled(fixedDelayString = "${clieman.verification-token-store.purge-interval-millis:3600000}")
+    public int purgeExpiredTokens() {
+        int count = 0;
+        int removed;
+
+        do {
+            removed = tokenStore.purgeExpired(batchSize);
+            count += removed;
+        } while (removed == batchSize);
+
+        if (count > 0) logger.info("Removed " + count + " expired verification tokens");
+        return count;
+    }
+}
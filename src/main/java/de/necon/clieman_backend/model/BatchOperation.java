@@ -0,0 +1,37 @@
+package de.necon.clieman_backend.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * The kind of an operation of a batch request.
+ */
+public enum BatchOperation {
+
+    ADD("add"),
+    UPDATE("update"),
+    REMOVE("remove");
+
+    private String name;
+
+    BatchOperation(final String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    @JsonCreator
+    public static BatchOperation fromString(String name) {
+        return name == null
+                ? null
+                : BatchOperation.valueOf(name.toUpperCase());
+    }
+
+    @JsonValue
+    public String getName() {
+        return name.toLowerCase();
+    }
+}
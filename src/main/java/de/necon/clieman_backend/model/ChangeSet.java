@@ -0,0 +1,108 @@
+package de.necon.clieman_backend.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The changes of the clients and events of a user since a watermark (see SyncService).
+ */
+public class ChangeSet {
+
+    private List<Client> clients = new ArrayList<>();
+
+    private List<EventView> events = new ArrayList<>();
+
+    private List<String> deletedClients = new ArrayList<>();
+
+    private List<String> deletedEvents = new ArrayList<>();
+
+    private long watermark;
+
+    private boolean full;
+
+    public ChangeSet() {
+    }
+
+    public ChangeSet(List<Client> clients, List<EventView> events, List<String> deletedClients,
+                     List<String> deletedEvents, long watermark, boolean full) {
+        this.clients = clients;
+        this.events = events;
+        this.deletedClients = deletedClients;
+        this.deletedEvents = deletedEvents;
+        this.watermark = watermark;
+        this.full = full;
+    }
+
+    /**
+     *
+     * @return the clients that were added or updated.
+     */
+    public List<Client> getClients() {
+        return clients;
+    }
+
+    public void setClients(List<Client> clients) {
+        this.clients = clients;
+    }
+
+    /**
+     *
+     * @return the events that were added or updated.
+     */
+    public List<EventView> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<EventView> events) {
+        this.events = events;
+    }
+
+    /**
+     *
+     * @return the id strings of the deleted clients.
+     */
+    public List<String> getDeletedClients() {
+        return deletedClients;
+    }
+
+    public void setDeletedClients(List<String> deletedClients) {
+        this.deletedClients = deletedClients;
+    }
+
+    /**
+     *
+     * @return the id strings of the deleted events.
+     */
+    public List<String> getDeletedEvents() {
+        return deletedEvents;
+    }
+
+    public void setDeletedEvents(List<String> deletedEvents) {
+        this.deletedEvents = deletedEvents;
+    }
+
+    /**
+     *
+     * @return the watermark to pass with the next sync (milliseconds since the epoch).
+     */
+    public long getWatermark() {
+        return watermark;
+    }
+
+    public void setWatermark(long watermark) {
+        this.watermark = watermark;
+    }
+
+    /**
+     *
+     * @return true if the change set contains all clients and events of the user. Items the device knows of, that
+     * aren't contained, were deleted.
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    public void setFull(boolean full) {
+        this.full = full;
+    }
+}
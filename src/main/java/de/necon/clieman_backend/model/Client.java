@@ -14,6 +14,12 @@ import java.util.Date;
 import java.util.TimeZone;
 
 @Entity
+@Table(indexes = {
+        // supports the keyset pagination of ClientRepository.findPageByUser
+        @Index(name = "idx_client_user_id", columnList = "USER_ID_EMBEDDED, ID_EMBEDDED"),
+        // supports the delta sync of ClientRepository.findAllByUserModifiedAfter
+        @Index(name = "idx_client_user_modified", columnList = "USER_ID_EMBEDDED, last_modified")
+})
 @JsonInclude(JsonInclude.Include.NON_NULL) //This ensures that only non null fields get serialized
 public class Client implements Serializable  {
 
@@ -48,6 +54,22 @@ public class Client implements Serializable  {
     @Basic
     private String title;
 
+    /**
+     * Incremented with every update. Managed by the server, a version sent by the client is ignored.
+     * Note: Only a change counter for the sync and no optimistic lock, concurrent updates are last writer wins.
+     */
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT) // like the other unset fields, version 0 (never updated) is omitted
+    private long version;
+
+    /**
+     * The time of the last insert or update. Managed by the server, a value sent by the client is ignored.
+     */
+    @Column(name = "last_modified", nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Date lastModified;
+
     private static final long serialVersionUID = 1L;
 
     public Client() {
@@ -86,6 +108,17 @@ public class Client implements Serializable  {
         this.title = title;
     }
 
+    /**
+     * Creates an unresolved reference to the client with the specified id, e.g. for the clients of a deserialized
+     * event. Only the id string is set; the user is assigned when the reference is resolved to the stored client.
+     * @param id The id of the referenced client.
+     */
+    public static Client reference(String id) {
+        var client = new Client();
+        client.id.setId(id);
+        return client;
+    }
+
     public Client copyShallow() {
         Date cBirthday = birthday != null ? new Date(birthday.getTime()) : null;
         String idStr = id != null ? id.getId() : null;
@@ -188,6 +221,37 @@ public class Client implements Serializable  {
         this.title = title;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     *
+     * @return the time of the last modification.
+     */
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Date lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    @PrePersist
+    void created() {
+        lastModified = new Date();
+    }
+
+    @PreUpdate
+    void touch() {
+        lastModified = new Date();
+        ++version;
+    }
+
     @JsonIgnore
     public User getUser() {
         return id.getUser();
@@ -210,7 +274,7 @@ public class Client implements Serializable  {
         }
 
         var idString = id != null ? id.getId() : null;
-        var userString = id != null && id.getUser() != null ? this.id.getUser().getEmail() : null;
+        var userId = id != null ? id.getUserId() : null;
 
         return "Client{" +
                 "address='" + address + '\'' +
@@ -222,7 +286,7 @@ public class Client implements Serializable  {
                 ", name='" + name + '\'' +
                 ", sex=" + sex +
                 ", title='" + title + '\'' +
-                ", user=" + userString +
+                ", user=" + userId +
                 '}';
     }
 
@@ -7,14 +7,18 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import de.necon.clieman_backend.config.RepositoryConfig;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 import javax.validation.Valid;
@@ -24,6 +28,16 @@ import java.io.Serializable;
 import java.util.*;
 
 @Entity
+@DynamicUpdate // updates only write the changed columns
+@NamedEntityGraph(name = Event.CLIENTS_GRAPH, attributeNodes = @NamedAttributeNode("clients"))
+@Table(indexes = {
+        // supports the overlap query of EventRepository.findAllViewsByUserInRange
+        @Index(name = "idx_event_user_start_end", columnList = "USER_ID_EMBEDDED, start_date, end_date"),
+        // supports the keyset pagination of EventRepository.findViewPageByUser
+        @Index(name = "idx_event_user_id", columnList = "USER_ID_EMBEDDED, ID_EMBEDDED"),
+        // supports the delta sync of EventRepository.findViewsByUserModifiedAfter
+        @Index(name = "idx_event_user_modified", columnList = "USER_ID_EMBEDDED, last_modified")
+})
 @JsonInclude(JsonInclude.Include.NON_NULL) //This ensures that only non null fields get serialized
 public class Event implements Serializable  {
 
@@ -31,8 +45,17 @@ public class Event implements Serializable  {
     @JsonDeserialize(contentUsing = ClientDeserializer.class)
 
     @ManyToMany
+    // if the clients weren't fetched with the entity graph (e.g. for paged queries), at least initialize them in batches
+    @BatchSize(size = RepositoryConfig.BATCH_FETCH_SIZE)
     @JoinTable(
             name="EVENT_CLIENTS",
+            indexes = {
+                    // supports reading the client ids of the events of a user
+                    // (see EventRepository.findClientReferencesByUser)
+                    @Index(name = "idx_event_clients_event", columnList = "EVENT_USER, EVENT_ID"),
+                    // supports finding the events of a client (see EventRepository.findAllByClient)
+                    @Index(name = "idx_event_clients_client", columnList = "CLIENT_USER, CLIENT_ID")
+            },
             joinColumns={
                     @JoinColumn(name="EVENT_ID", referencedColumnName="ID_EMBEDDED"),
                     @JoinColumn(name="EVENT_USER", referencedColumnName="USER_ID_EMBEDDED")
@@ -69,8 +92,30 @@ public class Event implements Serializable  {
     @Column(name="start_date")
     private Date start;
 
+    /**
+     * Incremented with every update (including changes of the clients, see markModified). Managed by the server, a
+     * version sent by the client is ignored.
+     * Note: Only a change counter for the sync and no optimistic lock, concurrent updates are last writer wins.
+     */
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT) // like the other unset fields, version 0 (never updated) is omitted
+    private long version;
+
+    /**
+     * The time of the last insert or update. Managed by the server, a value sent by the client is ignored.
+     */
+    @Column(name = "last_modified", nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Date lastModified;
+
     private static final long serialVersionUID = 0L;
 
+    /**
+     * Name of the entity graph that fetches the clients together with the event.
+     */
+    public static final String CLIENTS_GRAPH = "Event.clients";
+
     public Event() {
     }
 
@@ -196,6 +241,45 @@ public class Event implements Serializable  {
         this.start = start;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     *
+     * @return the time of the last modification.
+     */
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Date lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Marks the event as modified, e.g. if its client links were changed bypassing the persistence context.
+     * The version and the modification time are updated with the next flush.
+     */
+    public void markModified() {
+        lastModified = new Date();
+    }
+
+    @PrePersist
+    void created() {
+        lastModified = new Date();
+    }
+
+    @PreUpdate
+    void touch() {
+        lastModified = new Date();
+        ++version;
+    }
+
     @JsonIgnore
     public User getUser() {
         return id.getUser();
@@ -275,21 +359,19 @@ public class Event implements Serializable  {
         }
     }
 
+    /**
+     * Reads a client id string into an unresolved client reference (see Client.reference). The references are
+     * replaced by the stored clients in EventServiceImpl, which loads all of them with one query.
+     */
     public static class ClientDeserializer extends JsonDeserializer<Client> {
 
         @Override
         public Client deserialize(JsonParser p, DeserializationContext ctxt) throws IOException, JsonProcessingException {
-
-            return new Client(null,
-                    null,
-                    null,
-                    null,
-                    p.readValueAs(String.class),
-                    null,
-                    null,
-                    null,
-                    null,
-                    null);
+            // Note: the token text is read directly, without going through databinding
+            if (p.currentToken() != JsonToken.VALUE_STRING) {
+                return (Client) ctxt.handleUnexpectedToken(Client.class, p);
+            }
+            return Client.reference(p.getText());
         }
     }
-}
\ No newline at end of file
+}
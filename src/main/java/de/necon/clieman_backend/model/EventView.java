@@ -0,0 +1,158 @@
+package de.necon.clieman_backend.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A read only view of an event. Other than {@link Event} it references its clients only by their id string and
+ * doesn't hold the user, so it can be filled without hydrating any client or user entity.
+ * <p>
+ * The JSON representation is the same as the one of {@link Event}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL) //This ensures that only non null fields get serialized
+public class EventView {
+
+    @JsonProperty("clients")
+    private List<String> clientIds = new ArrayList<>();
+
+    private String color;
+
+    private String details;
+
+    private Date end;
+
+    private String id;
+
+    private String name;
+
+    private Date start;
+
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private long version;
+
+    private Date lastModified;
+
+    public EventView() {
+    }
+
+    /**
+     * Note: This constructor is used by the JPQL constructor expressions of
+     * {@link de.necon.clieman_backend.repository.EventRepository}.
+     */
+    public EventView(String id, String color, String details, Date end, String name, Date start, long version,
+                     Date lastModified) {
+        this.id = id;
+        this.color = color;
+        this.details = details;
+        this.end = end;
+        this.name = name;
+        this.start = start;
+        this.version = version;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     *
+     * @return the id strings of the clients of the event.
+     */
+    public List<String> getClientIds() {
+        return clientIds;
+    }
+
+    public void setClientIds(List<String> clientIds) {
+        this.clientIds = clientIds;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public void setColor(String color) {
+        this.color = color;
+    }
+
+    public String getDetails() {
+        return details;
+    }
+
+    public void setDetails(String details) {
+        this.details = details;
+    }
+
+    public Date getEnd() {
+        return end;
+    }
+
+    public void setEnd(Date end) {
+        this.end = end;
+    }
+
+    /**
+     *
+     * @return the id string of the event.
+     */
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Date getStart() {
+        return start;
+    }
+
+    public void setStart(Date start) {
+        this.start = start;
+    }
+
+    /**
+     *
+     * @return the version of the event (see {@link Event#getVersion()}).
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     *
+     * @return the time of the last modification of the event.
+     */
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Date lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    @Override
+    public String toString() {
+        return "EventView{" +
+                "details='" + details + '\'' +
+                ", start=" + start +
+                ", end=" + end +
+                ", clientIds=" + clientIds +
+                ", color='" + color + '\'' +
+                ", id=" + id +
+                ", name='" + name + '\'' +
+                '}';
+    }
+}
@@ -8,8 +8,6 @@ import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
@@ -17,6 +15,7 @@ import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.Objects;
 
 import static de.necon.clieman_backend.config.ServiceErrorMessages.INVALID_ID;
 
@@ -26,12 +25,24 @@ public class ID implements Serializable {
     @Column(name="ID_EMBEDDED")
     private String id;
 
+    /**
+     * Note: The user is loaded lazily. Equality is only based on the user's id, so accessing the id doesn't
+     * force a load of an uninitialized user proxy.
+     */
     @OnDelete(action = OnDeleteAction.CASCADE)
-    @OneToOne(targetEntity = User.class, fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @ManyToOne(targetEntity = User.class, fetch = FetchType.LAZY)
     @JoinColumn(nullable = false, name = "USER_ID_EMBEDDED")
     @JsonIgnore
     private User user;
 
+    /**
+     * The last computed hash code. IDs are the keys of clients and events in hash based collections, so the hash code
+     * is requested far more often than the ID changes.
+     * Note: Hibernate assigns the fields directly and the id of a new user is only set when it is persisted. Thus the
+     * cache is validated against the id string and the user id it was computed from and not only reset by the setters.
+     */
+    private transient HashCache hashCache;
+
 
     public ID() {
 
@@ -50,16 +61,23 @@ public class ID implements Serializable {
 
     public void setUser(User user) {
         this.user = user;
+        this.hashCache = null;
+    }
+
+    /**
+     *
+     * @return the id of the user or null if no user is set.
+     */
+    @JsonIgnore
+    public Long getUserId() {
+        return user != null ? user.getId() : null;
     }
 
     @Override
     public String toString() {
-
-        Long userID = user != null ? user.getId()  : null;
-
         return "ID{" +
                 "id='" + id + '\'' +
-                ", User=" + userID +
+                ", User=" + getUserId() +
                 '}';
     }
 
@@ -69,6 +87,7 @@ public class ID implements Serializable {
 
     public void setId(String id) {
         this.id = id;
+        this.hashCache = null;
     }
 
     @Override
@@ -79,18 +98,37 @@ public class ID implements Serializable {
 
         ID id1 = (ID) o;
 
-        return new EqualsBuilder()
-                .append(id, id1.id)
-                .append(user, id1.user)
-                .isEquals();
+        return Objects.equals(id, id1.id) && Objects.equals(getUserId(), id1.getUserId());
     }
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder(17, 37)
-                .append(id)
-                .append(user)
-                .toHashCode();
+        var userId = getUserId();
+        var cache = hashCache;
+
+        // Note: Compared by reference; an equal but different string or user id only results in a recomputation.
+        if (cache == null || cache.id != id || cache.userId != userId) {
+            cache = new HashCache(id, userId, 31 * Objects.hashCode(id) + Objects.hashCode(userId));
+            hashCache = cache;
+        }
+
+        return cache.hash;
+    }
+
+    /**
+     * Immutable, so that a hash code cached by one thread is never seen by another one together with the
+     * id or user id of an other computation.
+     */
+    private static final class HashCache {
+        private final String id;
+        private final Long userId;
+        private final int hash;
+
+        private HashCache(String id, Long userId, int hash) {
+            this.id = id;
+            this.userId = userId;
+            this.hash = hash;
+        }
     }
 
     public static class IDSerializer extends JsonSerializer<ID> {
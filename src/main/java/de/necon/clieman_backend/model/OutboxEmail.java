@@ -0,0 +1,127 @@
+package de.necon.clieman_backend.model;
+
+import org.hibernate.annotations.GenericGenerator;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * An email that is waiting to be sent. Outbox emails are written in the transaction of the operation that
+ * wants to send the email and are sent by the EmailOutboxDispatcher after the transaction has committed.
+ */
+@Entity
+@Table(indexes = {@Index(name = "idx_outbox_email_next_attempt", columnList = "nextAttemptAt")})
+public class OutboxEmail {
+
+    @Id
+    @GeneratedValue(generator = "sequence-generator")
+    @GenericGenerator(
+            name = "sequence-generator",
+            strategy = "de.necon.clieman_backend.repository.PooledSequenceGenerator",
+            parameters = {
+                    @org.hibernate.annotations.Parameter(name = "sequence_name", value = "seq_outbox_email"),
+                    @org.hibernate.annotations.Parameter(name = "initial_value", value = "1")
+            }
+    )
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    private String subject;
+
+    @Column(length = 4096)
+    private String text;
+
+    /**
+     * The time at which the email should be sent (again).
+     */
+    @Column(nullable = false)
+    private Date nextAttemptAt;
+
+    /**
+     * The number of attempts made to send the email.
+     */
+    private int attempts;
+
+    @Column(length = 1024)
+    private String lastError;
+
+    public OutboxEmail() {
+
+    }
+
+    public OutboxEmail(String recipient, String subject, String text) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.text = text;
+        this.nextAttemptAt = new Date();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public Date getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(Date nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxEmail{" +
+                "id=" + id +
+                ", recipient='" + recipient + '\'' +
+                ", subject='" + subject + '\'' +
+                ", nextAttemptAt=" + nextAttemptAt +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
@@ -0,0 +1,102 @@
+package de.necon.clieman_backend.model;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * Records the deletion of a client or an event, so that the delta sync can tell devices which items they have to
+ * remove. Tombstones are purged after a retention period (see TombstoneSweeper); devices that haven't synced within
+ * that period get a full sync.
+ */
+@Entity
+@Table(indexes = {
+        // supports the delta sync (see TombstoneRepository.findItemIdsDeletedAfter)
+        @Index(name = "idx_tombstone_user_deleted", columnList = "user_id, deleted_at"),
+        // supports the purge of old tombstones
+        @Index(name = "idx_tombstone_deleted", columnList = "deleted_at")
+})
+public class Tombstone {
+
+    /**
+     * The kind of the deleted item.
+     */
+    public enum Type {
+        CLIENT,
+        EVENT
+    }
+
+    @Id
+    @GeneratedValue(generator = "sequence-generator")
+    @GenericGenerator(
+            name = "sequence-generator",
+            strategy = "de.necon.clieman_backend.repository.PooledSequenceGenerator",
+            parameters = {
+                    @org.hibernate.annotations.Parameter(name = "sequence_name", value = "seq_tombstone"),
+                    @org.hibernate.annotations.Parameter(name = "initial_value", value = "1")
+            }
+    )
+    private Long id;
+
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ManyToOne(targetEntity = User.class, fetch = FetchType.LAZY)
+    @JoinColumn(nullable = false, name = "user_id")
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type;
+
+    /**
+     * The id string of the deleted client or event.
+     */
+    @Column(name = "item_id", nullable = false)
+    private String itemId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private Date deletedAt;
+
+    public Tombstone() {
+
+    }
+
+    public Tombstone(User user, Type type, String itemId) {
+        this.user = user;
+        this.type = type;
+        this.itemId = itemId;
+        this.deletedAt = new Date();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public Date getDeletedAt() {
+        return deletedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "Tombstone{" +
+                "id=" + id +
+                ", type=" + type +
+                ", itemId='" + itemId + '\'' +
+                ", deletedAt=" + deletedAt +
+                '}';
+    }
+}
@@ -40,11 +40,10 @@ public class User {
     @GeneratedValue(generator = "sequence-generator")
     @GenericGenerator(
             name = "sequence-generator",
-            strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            strategy = "de.necon.clieman_backend.repository.PooledSequenceGenerator",
             parameters = {
                     @Parameter(name = "sequence_name", value = "seq_tb_user"),
-                    @Parameter(name = "initial_value", value = "1"),
-                    @Parameter(name = "increment_size", value = "1")
+                    @Parameter(name = "initial_value", value = "1")
             }
     )
     private Long id;
@@ -66,6 +65,13 @@ public class User {
     @Column(name="username", unique=true)
     private String username;
 
+    /**
+     * Grants access to the /admin endpoints. Is only set by an operator in the database (see the migration
+     * V4__user_admin_flag) and not bound to the email, which the user can change.
+     */
+    @Column(columnDefinition="BOOLEAN DEFAULT false", nullable = false)
+    private boolean admin = false;
+
     public User() {
 
     }
@@ -83,6 +89,16 @@ public class User {
         this.enabled = enabled ? enabled : false;
     }
 
+    /**
+     * @return a (detached) copy of this user.
+     */
+    public User copy() {
+        var user = new User(email, password, username, enabled);
+        user.setId(id);
+        user.setAdmin(admin);
+        return user;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -93,6 +109,7 @@ public class User {
 
         return new EqualsBuilder()
                 .append(enabled, user.enabled)
+                .append(admin, user.admin)
                 .append(email, user.email)
                 .append(id, user.id)
                 .append(password, user.password)
@@ -114,7 +131,7 @@ public class User {
 
     @Override
     public int hashCode() {
-        return Objects.hash(email, enabled, id, password, username);
+        return Objects.hash(email, enabled, admin, id, password, username);
     }
 
     public boolean isEnabled() {
@@ -126,6 +143,15 @@ public class User {
         return !enabled;
     }
 
+    @JsonIgnore
+    public boolean isAdmin() {
+        return admin;
+    }
+
+    public void setAdmin(boolean admin) {
+        this.admin = admin;
+    }
+
     public void setEmail(String email) {
         this.email = email;
     }
@@ -162,6 +188,7 @@ public class User {
         return "User{" +
                 "email='" + email + '\'' +
                 ", enabled=" + enabled +
+                ", admin=" + admin +
                 ", id=" + id +
                 ", password='" + password + '\'' +
                 ", username='" + username + '\'' +
@@ -15,7 +15,11 @@ import static de.necon.clieman_backend.config.ServiceErrorMessages.*;
 
 @Entity
 @Table(
-        uniqueConstraints={@UniqueConstraint(columnNames={"user_id"})})
+        uniqueConstraints={@UniqueConstraint(columnNames={"user_id"})},
+        indexes = {
+                @Index(name = "idx_verification_token_token", columnList = "token"),
+                @Index(name = "idx_verification_token_expiry_date", columnList = "expiryDate")
+        })
 public class VerificationToken {
     private static final int EXPIRATION = 60 * 24;
 
@@ -23,11 +27,10 @@ public class VerificationToken {
     @GeneratedValue(generator = "sequence-generator")
     @GenericGenerator(
             name = "sequence-generator",
-            strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            strategy = "de.necon.clieman_backend.repository.PooledSequenceGenerator",
             parameters = {
                     @org.hibernate.annotations.Parameter(name = "sequence_name", value = "seq_verificationtoken"),
-                    @org.hibernate.annotations.Parameter(name = "initial_value", value = "1"),
-                    @org.hibernate.annotations.Parameter(name = "increment_size", value = "1")
+                    @org.hibernate.annotations.Parameter(name = "initial_value", value = "1")
             }
     )
     private Long id;
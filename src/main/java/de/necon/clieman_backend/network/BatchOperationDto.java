@@ -0,0 +1,38 @@
+package de.necon.clieman_backend.network;
+
+import de.necon.clieman_backend.model.BatchOperation;
+
+/**
+ * A single operation of a batch request.
+ * @param <T> The type of the item (client or event).
+ */
+public class BatchOperationDto<T> {
+
+    private BatchOperation operation;
+
+    private T item;
+
+    public BatchOperationDto() {
+    }
+
+    public BatchOperationDto(BatchOperation operation, T item) {
+        this.operation = operation;
+        this.item = item;
+    }
+
+    public BatchOperation getOperation() {
+        return operation;
+    }
+
+    public void setOperation(BatchOperation operation) {
+        this.operation = operation;
+    }
+
+    public T getItem() {
+        return item;
+    }
+
+    public void setItem(T item) {
+        this.item = item;
+    }
+}
@@ -0,0 +1,42 @@
+package de.necon.clieman_backend.network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The result of a single operation of a batch request. The operation succeeded if the error list is empty.
+ */
+public class BatchResultDto {
+
+    /**
+     * The id of the item of the operation. Is null if the item had no id.
+     */
+    private String id;
+
+    private List<String> errors;
+
+    public BatchResultDto() {
+        this.errors = new ArrayList<>();
+    }
+
+    public BatchResultDto(String id, List<String> errors) {
+        this.id = id;
+        this.errors = errors;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,294 @@
+package de.necon.clieman_backend.network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The statistics of the database access, see DatabaseStatisticsService. Times are in milliseconds.
+ */
+public class DatabaseStatisticsDto {
+
+    /**
+     * Specifies whether the statistics are collected (clieman.db-instrumentation.enabled).
+     */
+    private boolean enabled;
+
+    /**
+     * The number of statements executed over the instrumented data source.
+     */
+    private long statementCount;
+
+    /**
+     * The number of statements, which took longer than the slow statement threshold.
+     */
+    private long slowStatementCount;
+
+    private long prepareStatementCount;
+
+    private long queryExecutionCount;
+
+    private long queryExecutionMaxTimeMillis;
+
+    private String slowestQuery;
+
+    private long entityLoadCount;
+
+    /**
+     * The number of entities fetched with an additional query (e.g. lazy loading).
+     */
+    private long entityFetchCount;
+
+    private long entityInsertCount;
+
+    private long entityUpdateCount;
+
+    private long entityDeleteCount;
+
+    private long collectionLoadCount;
+
+    private long collectionFetchCount;
+
+    private long secondLevelCacheHitCount;
+
+    private long secondLevelCacheMissCount;
+
+    /**
+     * Is null if the second level cache wasn't accessed.
+     */
+    private Double secondLevelCacheHitRatio;
+
+    private long queryCacheHitCount;
+
+    private long queryCacheMissCount;
+
+    /**
+     * Is null if the query cache wasn't accessed.
+     */
+    private Double queryCacheHitRatio;
+
+    /**
+     * The queries with the highest total execution time.
+     */
+    private List<QueryDto> queries = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getStatementCount() {
+        return statementCount;
+    }
+
+    public void setStatementCount(long statementCount) {
+        this.statementCount = statementCount;
+    }
+
+    public long getSlowStatementCount() {
+        return slowStatementCount;
+    }
+
+    public void setSlowStatementCount(long slowStatementCount) {
+        this.slowStatementCount = slowStatementCount;
+    }
+
+    public long getPrepareStatementCount() {
+        return prepareStatementCount;
+    }
+
+    public void setPrepareStatementCount(long prepareStatementCount) {
+        this.prepareStatementCount = prepareStatementCount;
+    }
+
+    public long getQueryExecutionCount() {
+        return queryExecutionCount;
+    }
+
+    public void setQueryExecutionCount(long queryExecutionCount) {
+        this.queryExecutionCount = queryExecutionCount;
+    }
+
+    public long getQueryExecutionMaxTimeMillis() {
+        return queryExecutionMaxTimeMillis;
+    }
+
+    public void setQueryExecutionMaxTimeMillis(long queryExecutionMaxTimeMillis) {
+        this.queryExecutionMaxTimeMillis = queryExecutionMaxTimeMillis;
+    }
+
+    public String getSlowestQuery() {
+        return slowestQuery;
+    }
+
+    public void setSlowestQuery(String slowestQuery) {
+        this.slowestQuery = slowestQuery;
+    }
+
+    public long getEntityLoadCount() {
+        return entityLoadCount;
+    }
+
+    public void setEntityLoadCount(long entityLoadCount) {
+        this.entityLoadCount = entityLoadCount;
+    }
+
+    public long getEntityFetchCount() {
+        return entityFetchCount;
+    }
+
+    public void setEntityFetchCount(long entityFetchCount) {
+        this.entityFetchCount = entityFetchCount;
+    }
+
+    public long getEntityInsertCount() {
+        return entityInsertCount;
+    }
+
+    public void setEntityInsertCount(long entityInsertCount) {
+        this.entityInsertCount = entityInsertCount;
+    }
+
+    public long getEntityUpdateCount() {
+        return entityUpdateCount;
+    }
+
+    public void setEntityUpdateCount(long entityUpdateCount) {
+        this.entityUpdateCount = entityUpdateCount;
+    }
+
+    public long getEntityDeleteCount() {
+        return entityDeleteCount;
+    }
+
+    public void setEntityDeleteCount(long entityDeleteCount) {
+        this.entityDeleteCount = entityDeleteCount;
+    }
+
+    public long getCollectionLoadCount() {
+        return collectionLoadCount;
+    }
+
+    public void setCollectionLoadCount(long collectionLoadCount) {
+        this.collectionLoadCount = collectionLoadCount;
+    }
+
+    public long getCollectionFetchCount() {
+        return collectionFetchCount;
+    }
+
+    public void setCollectionFetchCount(long collectionFetchCount) {
+        this.collectionFetchCount = collectionFetchCount;
+    }
+
+    public long getSecondLevelCacheHitCount() {
+        return secondLevelCacheHitCount;
+    }
+
+    public void setSecondLevelCacheHitCount(long secondLevelCacheHitCount) {
+        this.secondLevelCacheHitCount = secondLevelCacheHitCount;
+    }
+
+    public long getSecondLevelCacheMissCount() {
+        return secondLevelCacheMissCount;
+    }
+
+    public void setSecondLevelCacheMissCount(long secondLevelCacheMissCount) {
+        this.secondLevelCacheMissCount = secondLevelCacheMissCount;
+    }
+
+    public Double getSecondLevelCacheHitRatio() {
+        return secondLevelCacheHitRatio;
+    }
+
+    public void setSecondLevelCacheHitRatio(Double secondLevelCacheHitRatio) {
+        this.secondLevelCacheHitRatio = secondLevelCacheHitRatio;
+    }
+
+    public long getQueryCacheHitCount() {
+        return queryCacheHitCount;
+    }
+
+    public void setQueryCacheHitCount(long queryCacheHitCount) {
+        this.queryCacheHitCount = queryCacheHitCount;
+    }
+
+    public long getQueryCacheMissCount() {
+        return queryCacheMissCount;
+    }
+
+    public void setQueryCacheMissCount(long queryCacheMissCount) {
+        this.queryCacheMissCount = queryCacheMissCount;
+    }
+
+    public Double getQueryCacheHitRatio() {
+        return queryCacheHitRatio;
+    }
+
+    public void setQueryCacheHitRatio(Double queryCacheHitRatio) {
+        this.queryCacheHitRatio = queryCacheHitRatio;
+    }
+
+    public List<QueryDto> getQueries() {
+        return queries;
+    }
+
+    public void setQueries(List<QueryDto> queries) {
+        this.queries = queries;
+    }
+
+    public static class QueryDto {
+
+        private String query;
+
+        private long executionCount;
+
+        private long executionAvgTimeMillis;
+
+        private long executionMaxTimeMillis;
+
+        private long executionRowCount;
+
+        public String getQuery() {
+            return query;
+        }
+
+        public void setQuery(String query) {
+            this.query = query;
+        }
+
+        public long getExecutionCount() {
+            return executionCount;
+        }
+
+        public void setExecutionCount(long executionCount) {
+            this.executionCount = executionCount;
+        }
+
+        public long getExecutionAvgTimeMillis() {
+            return executionAvgTimeMillis;
+        }
+
+        public void setExecutionAvgTimeMillis(long executionAvgTimeMillis) {
+            this.executionAvgTimeMillis = executionAvgTimeMillis;
+        }
+
+        public long getExecutionMaxTimeMillis() {
+            return executionMaxTimeMillis;
+        }
+
+        public void setExecutionMaxTimeMillis(long executionMaxTimeMillis) {
+            this.executionMaxTimeMillis = executionMaxTimeMillis;
+        }
+
+        public long getExecutionRowCount() {
+            return executionRowCount;
+        }
+
+        public void setExecutionRowCount(long executionRowCount) {
+            this.executionRowCount = executionRowCount;
+        }
+    }
+}
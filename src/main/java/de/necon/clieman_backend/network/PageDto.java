@@ -0,0 +1,46 @@
+package de.necon.clieman_backend.network;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A page of a keyset paginated listing.
+ * @param <T> The type of the items.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PageDto<T> {
+
+    private List<T> items;
+
+    /**
+     * Opaque cursor for retrieving the next page. Is null if there are no more items.
+     */
+    private String nextCursor;
+
+    public PageDto() {
+        this.items = new ArrayList<>();
+    }
+
+    public PageDto(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
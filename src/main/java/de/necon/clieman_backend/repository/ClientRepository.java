@@ -3,11 +3,21 @@ package de.necon.clieman_backend.repository;
 import de.necon.clieman_backend.model.Client;
 import de.necon.clieman_backend.model.ID;
 import de.necon.clieman_backend.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static de.necon.clieman_backend.config.RepositoryConfig.STREAM_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface ClientRepository extends JpaRepository<Client, ID> {
 
@@ -24,4 +34,70 @@ public interface ClientRepository extends JpaRepository<Client, ID> {
      */
     @Query("SELECT c FROM Client c WHERE c.id.user = :user")
     List<Client> findAllByUser(@Param("user")User user);
+
+    /**
+     * Streams all clients of a given user. The rows are fetched in chunks of
+     * {@link de.necon.clieman_backend.config.RepositoryConfig#STREAM_FETCH_SIZE} and the returned entities are
+     * read only.
+     * <p>
+     * Has to be called within a transaction and the returned stream has to be closed after usage.
+     * <p>
+     * Note that the order of elements in the result is not guaranteed.
+     *
+     * @param user must not be {@literal null}.
+     * @return guaranteed to be not {@literal null}. Can be empty.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("SELECT c FROM Client c WHERE c.id.user = :user")
+    Stream<Client> streamAllByUser(@Param("user")User user);
+
+    /**
+     * Returns a page of the clients of a given user using keyset pagination.
+     * <p>
+     * The clients are ordered by their id and only clients with an id greater than 'after' are returned.
+     * Since client ids mustn't be blank, the empty string can be used for retrieving the first page.
+     *
+     * @param user must not be {@literal null}.
+     * @param after The id of the last client of the previous page. Must not be {@literal null}.
+     * @param pageable Specifies the maximum number of returned clients. The page number should always be 0.
+     * @return guaranteed to be not {@literal null}. Can be empty.
+     */
+    @Query("SELECT c FROM Client c WHERE c.id.user = :user AND c.id.id > :after ORDER BY c.id.id")
+    List<Client> findPageByUser(@Param("user")User user, @Param("after") String after, Pageable pageable);
+
+    /**
+     * Returns the clients of a given user that have one of the given ids.
+     *
+     * @param user must not be {@literal null}.
+     * @param ids The id strings of the clients. Must not be empty.
+     * @return guaranteed to be not {@literal null}. Ids without a matching client are skipped.
+     */
+    @Query("SELECT c FROM Client c WHERE c.id.user = :user AND c.id.id IN (:ids)")
+    List<Client> findAllByUserAndIds(@Param("user")User user, @Param("ids") Collection<String> ids);
+
+    /**
+     * Returns the clients of a given user that were added or updated after a given time.
+     * <p>
+     * Note that the order of elements in the result is not guaranteed.
+     *
+     * @param user must not be {@literal null}.
+     * @param since Only clients modified after this time are returned. Must not be {@literal null}.
+     * @return guaranteed to be not {@literal null}. Can be empty.
+     */
+    @Query("SELECT c FROM Client c WHERE c.id.user = :user AND c.lastModified > :since")
+    List<Client> findAllByUserModifiedAfter(@Param("user")User user, @Param("since") Date since);
+
+    /**
+     * Returns an aggregate over the clients of a user that changes with every modification of the clients. The
+     * aggregate is computed by the database, no client is loaded.
+     *
+     * @param user must not be {@literal null}.
+     * @return guaranteed to be not {@literal null}.
+     */
+    @Query("SELECT COUNT(c) AS count, MAX(c.lastModified) AS lastModified, SUM(c.version) AS versionSum " +
+            "FROM Client c WHERE c.id.user = :user")
+    CollectionState findCollectionStateByUser(@Param("user")User user);
 }
@@ -0,0 +1,33 @@
+package de.necon.clieman_backend.repository;
+
+import java.util.Date;
+
+/**
+ * An aggregate over the clients or events of a user that changes whenever one of them is added, updated or deleted.
+ * It is read without loading any entity, so it can be used to detect whether a collection changed
+ * (e.g. for the ETags of the list endpoints).
+ */
+public interface CollectionState {
+
+    long getCount();
+
+    /**
+     * @return the latest modification time or null if the collection is empty.
+     */
+    Date getLastModified();
+
+    /**
+     * @return the sum of the versions or null if the collection is empty.
+     */
+    Long getVersionSum();
+
+    /**
+     * @return a string that identifies the state of the collection.
+     */
+    default String toVersionString() {
+        var lastModified = getLastModified();
+        var versionSum = getVersionSum();
+        return getCount() + "-" + (lastModified != null ? lastModified.getTime() : 0) + "-" +
+                (versionSum != null ? versionSum : 0);
+    }
+}
@@ -2,30 +2,255 @@ package de.necon.clieman_backend.repository;
 
 import de.necon.clieman_backend.model.Client;
 import de.necon.clieman_backend.model.Event;
+import de.necon.clieman_backend.model.EventView;
 import de.necon.clieman_backend.model.ID;
 import de.necon.clieman_backend.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.Date;
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static de.necon.clieman_backend.config.RepositoryConfig.STREAM_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface EventRepository extends JpaRepository<Event, ID> {
 
+    String VIEW_SELECT = "SELECT new de.necon.clieman_backend.model.EventView(e.id.id, e.color, e.details, e.end, " +
+            "e.name, e.start, e.version, e.lastModified) FROM Event e ";
+
     /**
      * Returns all events of a given user.
      * <p>
      * If the given user is not found, no events are returned.
      * <p>
      * Note that the order of elements in the result is not guaranteed.
+     * The clients of the events are fetched with the same query.
      *
      * @param user must not be {@literal null}.
      * @return guaranteed to be not {@literal null}. Can be empty.
      * @throws IllegalArgumentException in case the given {@link User} is {@literal null}.
      */
-    @Query("SELECT e FROM Event e WHERE e.id.user = :user")
+    @EntityGraph(Event.CLIENTS_GRAPH)
+    @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    @Query("SELECT DISTINCT e FROM Event e WHERE e.id.user = :user")
     List<Event> findAllByUser(@Param("user")User user);
 
-    @Query("SELECT e FROM Event e WHERE :client MEMBER OF e.clients")
-    List<Event> findAllByClient(@Param("client") Client client);
+    /**
+     * Streams all events of a given user. The rows are fetched in chunks of
+     * {@link de.necon.clieman_backend.config.RepositoryConfig#STREAM_FETCH_SIZE} and the returned entities are
+     * read only.
+     * <p>
+     * Has to be called within a transaction and the returned stream has to be closed after usage.
+     * <p>
+     * Note that the order of elements in the result is not guaranteed.
+     *
+     * @param user must not be {@literal null}.
+     * @return guaranteed to be not {@literal null}. Can be empty.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("SELECT e FROM Event e WHERE e.id.user = :user")
+    Stream<Event> streamAllByUser(@Param("user")User user);
+
+    /**
+     * Returns all events of a given user as views. The client ids of the views are not filled, they
+     * can be retrieved with {@link #findClientReferencesByUser(Long)}.
+     * <p>
+     * Note that the order of elements in the result is not guaranteed.
+     *
+     * @param user must not be {@literal null}.
+     * @return guaranteed to be not {@literal null}. Can be empty.
+     */
+    @Query(VIEW_SELECT + "WHERE e.id.user = :user")
+    List<EventView> findAllViewsByUser(@Param("user")User user);
+
+    /**
+     * Returns a page of the events of a given user as views using keyset pagination. The client ids of the views
+     * are not filled, they can be retrieved with {@link #findClientReferencesByUserAndEvents(Long, Collection)}.
+     * <p>
+     * The events are ordered by their id and only events with an id greater than 'after' are returned.
+     * Since event ids mustn't be blank, the empty string can be used for retrieving the first page.
+     *
+     * @param user must not be {@literal null}.
+     * @param after The id of the last event of the previous page. Must not be {@literal null}.
+     * @param pageable Specifies the maximum number of returned events. The page number should always be 0.
+     * @return guaranteed to be not {@literal null}. Can be empty.
+     */
+    @Query(VIEW_SELECT + "WHERE e.id.user = :user AND e.id.id > :after ORDER BY e.id.id")
+    List<EventView> findViewPageByUser(@Param("user")User user, @Param("after") String after, Pageable pageable);
+
+    /**
+     * Returns all events of a given user that overlap the time window [from, to] as views. The client ids of the
+     * views are not filled, they can be retrieved with {@link #findClientReferencesByUserAndEvents(Long, Collection)}.
+     * <p>
+     * An event overlaps the window if it starts before or at 'to' and ends at or after 'from'.
+     * Events without a start or end date are not returned.
+     * <p>
+     * Note that the order of elements in the result is not guaranteed.
+     *
+     * @param user must not be {@literal null}.
+     * @param from The begin of the time window. Must not be {@literal null}.
+     * @param to The end of the time window. Must not be {@literal null}.
+     * @return guaranteed to be not {@literal null}. Can be empty.
+     */
+    @Query(VIEW_SELECT + "WHERE e.id.user = :user AND e.start <= :to AND e.end >= :from")
+    List<EventView> findAllViewsByUserInRange(@Param("user")User user, @Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Returns the events of a given user that were added or updated after a given time as views. The client ids of
+     * the views are not filled, they can be retrieved with {@link #findClientReferencesByUserAndEvents(Long, Collection)}.
+     * <p>
+     * Note that the order of elements in the result is not guaranteed.
+     *
+     * @param user must not be {@literal null}.
+     * @param since Only events modified after this time are returned. Must not be {@literal null}.
+     * @return guaranteed to be not {@literal null}. Can be empty.
+     */
+    @Query(VIEW_SELECT + "WHERE e.id.user = :user AND e.lastModified > :since")
+    List<EventView> findViewsByUserModifiedAfter(@Param("user")User user, @Param("since") Date since);
+
+    /**
+     * Returns an aggregate over the events of a user that changes with every modification of the events (including
+     * changes of their client links). The aggregate is computed by the database, no event is loaded.
+     *
+     * @param user must not be {@literal null}.
+     * @return guaranteed to be not {@literal null}.
+     */
+    @Query("SELECT COUNT(e) AS count, MAX(e.lastModified) AS lastModified, SUM(e.version) AS versionSum " +
+            "FROM Event e WHERE e.id.user = :user")
+    CollectionState findCollectionStateByUser(@Param("user")User user);
+
+    /**
+     * Returns the (event id, client id) pairs of all events of a given user. The pairs are read from the join table
+     * only, so no client is loaded.
+     *
+     * @param userId The id of the user.
+     * @return Arrays of length two holding the event id and the client id. Guaranteed to be not {@literal null}.
+     */
+    @Query(value = "SELECT EVENT_ID, CLIENT_ID FROM EVENT_CLIENTS WHERE EVENT_USER = :userId", nativeQuery = true)
+    List<Object[]> findClientReferencesByUser(@Param("userId") Long userId);
+
+    /**
+     * Like {@link #findClientReferencesByUser(Long)} but only returns the pairs of the given events.
+     *
+     * @param userId The id of the user.
+     * @param eventIds The ids of the events. Must not be empty.
+     * @return Arrays of length two holding the event id and the client id. Guaranteed to be not {@literal null}.
+     */
+    @Query(value = "SELECT EVENT_ID, CLIENT_ID FROM EVENT_CLIENTS WHERE EVENT_USER = :userId AND EVENT_ID IN (:eventIds)",
+            nativeQuery = true)
+    List<Object[]> findClientReferencesByUserAndEvents(@Param("userId") Long userId,
+                                                       @Param("eventIds") Collection<String> eventIds);
+
+    /**
+     * Removes the links between an event and some of its clients.
+     * <p>
+     * Note: The links are deleted directly in the join table. The clients of an already loaded event are not updated.
+     *
+     * @param userId The id of the user of the event.
+     * @param eventId The id string of the event.
+     * @param clientIds The id strings of the clients to unlink. Must not be empty.
+     * @return The number of removed links.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM EVENT_CLIENTS WHERE EVENT_USER = :userId AND EVENT_ID = :eventId " +
+            "AND CLIENT_ID IN (:clientIds)", nativeQuery = true)
+    int removeClientReferences(@Param("userId") Long userId, @Param("eventId") String eventId,
+                               @Param("clientIds") Collection<String> clientIds);
+
+    /**
+     * Links clients of the user to an event. Clients that don't exist are skipped.
+     * <p>
+     * Note: The links are inserted directly in the join table. The clients of an already loaded event are not updated.
+     *
+     * @param userId The id of the user of the event and the clients.
+     * @param eventId The id string of the event.
+     * @param clientIds The id strings of the clients to link. Must not be empty and mustn't be linked already.
+     * @return The number of added links.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO EVENT_CLIENTS (EVENT_ID, EVENT_USER, CLIENT_ID, CLIENT_USER) " +
+            "SELECT :eventId, c.USER_ID_EMBEDDED, c.ID_EMBEDDED, c.USER_ID_EMBEDDED FROM CLIENT c " +
+            "WHERE c.USER_ID_EMBEDDED = :userId AND c.ID_EMBEDDED IN (:clientIds)", nativeQuery = true)
+    int addClientReferences(@Param("userId") Long userId, @Param("eventId") String eventId,
+                            @Param("clientIds") Collection<String> clientIds);
+
+    /**
+     * Returns the events of a given user that have one of the given ids.
+     *
+     * @param user must not be {@literal null}.
+     * @param ids The id strings of the events. Must not be empty.
+     * @return guaranteed to be not {@literal null}. Ids without a matching event are skipped.
+     */
+    @Query("SELECT e FROM Event e WHERE e.id.user = :user AND e.id.id IN (:ids)")
+    List<Event> findAllByUserAndIds(@Param("user")User user, @Param("ids") Collection<String> ids);
+
+    /**
+     * Returns the ids of those of the given clients that are referenced by at least one event.
+     *
+     * @param userId The id of the user of the clients.
+     * @param clientIds The id strings of the clients. Must not be empty.
+     * @return guaranteed to be not {@literal null}.
+     */
+    @Query(value = "SELECT DISTINCT CLIENT_ID FROM EVENT_CLIENTS WHERE CLIENT_USER = :userId " +
+            "AND CLIENT_ID IN (:clientIds)", nativeQuery = true)
+    List<String> findReferencedClientIds(@Param("userId") Long userId,
+                                         @Param("clientIds") Collection<String> clientIds);
+
+    /**
+     * Returns all events referencing a given client.
+     * <p>
+     * Note that the order of elements in the result is not guaranteed.
+     *
+     * @param client must not be {@literal null}.
+     * @return guaranteed to be not {@literal null}. Can be empty.
+     */
+    default List<Event> findAllByClient(Client client) {
+        return findAllByUserAndClientId(client.getId().getUser(), client.getId().getId());
+    }
+
+    /**
+     * Returns all events of a user referencing a client of the same user. The query is driven by the client links
+     * (supported by the index idx_event_clients_client), so it only touches the events of the client.
+     * <p>
+     * Note that the order of elements in the result is not guaranteed.
+     *
+     * @param user must not be {@literal null}.
+     * @param clientId The id string of the client.
+     * @return guaranteed to be not {@literal null}. Can be empty.
+     */
+    @Query("SELECT e FROM Event e JOIN e.clients c " +
+            "WHERE c.id.user = :user AND c.id.id = :clientId AND e.id.user = :user")
+    List<Event> findAllByUserAndClientId(@Param("user") User user, @Param("clientId") String clientId);
+
+    /**
+     * Returns a page of the events referencing a client as views using keyset pagination. The client ids of the
+     * views are not filled, they can be retrieved with {@link #findClientReferencesByUserAndEvents(Long, Collection)}.
+     * <p>
+     * The events are ordered by their id and only events with an id greater than 'after' are returned.
+     *
+     * @param user must not be {@literal null}.
+     * @param clientId The id string of the client.
+     * @param after The id of the last event of the previous page. Must not be {@literal null}.
+     * @param pageable Specifies the maximum number of returned events. The page number should always be 0.
+     * @return guaranteed to be not {@literal null}. Can be empty.
+     */
+    @Query(VIEW_SELECT + "JOIN e.clients c " +
+            "WHERE c.id.user = :user AND c.id.id = :clientId AND e.id.user = :user AND e.id.id > :after " +
+            "ORDER BY e.id.id")
+    List<EventView> findViewPageByClient(@Param("user") User user, @Param("clientId") String clientId,
+                                         @Param("after") String after, Pageable pageable);
 }
@@ -0,0 +1,40 @@
+package de.necon.clieman_backend.repository;
+
+import de.necon.clieman_backend.model.OutboxEmail;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+
+    /**
+     * Provides the emails that are due for sending, oldest first. The returned rows are locked for update;
+     * rows locked by other transactions are skipped (if supported by the database), so that several nodes can
+     * dispatch the outbox concurrently.
+     * @param now The current time.
+     * @param pageable Limits the number of returned emails.
+     * @return The due emails.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints({@QueryHint(name = "javax.persistence.lock.timeout", value = "-2")})
+    @Query("select o from OutboxEmail o where o.nextAttemptAt <= :now order by o.nextAttemptAt, o.id")
+    List<OutboxEmail> findDue(@Param("now") Date now, Pageable pageable);
+
+    /**
+     * Deletes the emails having the given ids.
+     * @param ids The ids of the emails to delete.
+     */
+    @Modifying
+    @Query("delete from OutboxEmail o where o.id in :ids")
+    void deleteByIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,37 @@
+package de.necon.clieman_backend.repository;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * A sequence based id generator that allocates ids in blocks. Only the first id of a block requires a database
+ * round trip, the remaining ids are handed out in memory (pooled-lo optimization).
+ * <p>
+ * The block size is read from the hibernate setting {@value #ALLOCATION_SIZE_SETTING} (default
+ * {@value #DEFAULT_ALLOCATION_SIZE}). The increment of the database sequence has to match the block size
+ * (see the flyway migration V1__pooled_id_sequences.sql).
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String ALLOCATION_SIZE_SETTING = "clieman.id.allocation_size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+
+        var settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        var allocationSize = ConfigurationHelper.getInt(ALLOCATION_SIZE_SETTING, settings, DEFAULT_ALLOCATION_SIZE);
+
+        params.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+
+        super.configure(type, params, serviceRegistry);
+    }
+}
@@ -0,0 +1,38 @@
+package de.necon.clieman_backend.repository;
+
+import de.necon.clieman_backend.model.Tombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.List;
+
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+
+    /**
+     * Returns the ids of the items of a user that were deleted after a given time.
+     *
+     * @param userId The id of the user.
+     * @param type The kind of the deleted items.
+     * @param since Only deletions after this time are returned. Must not be {@literal null}.
+     * @return guaranteed to be not {@literal null}. An id can occur more than once if the item was re-added and
+     * deleted again.
+     */
+    @Query("SELECT t.itemId FROM Tombstone t WHERE t.user.id = :userId AND t.type = :type AND t.deletedAt > :since")
+    List<String> findItemIdsDeletedAfter(@Param("userId") Long userId, @Param("type") Tombstone.Type type,
+                                         @Param("since") Date since);
+
+    /**
+     * Deletes a batch of tombstones that were created before a given time.
+     * @param before The deletion time up to which tombstones are purged.
+     * @param batchSize The maximum number of tombstones to delete.
+     * @return The number of deleted tombstones.
+     */
+    @Modifying
+    @Query(value = "delete from tombstone where id in " +
+            "(select id from tombstone where deleted_at < :before limit :batchSize)",
+            nativeQuery = true)
+    int deleteCreatedBefore(@Param("before") Date before, @Param("batchSize") int batchSize);
+}
@@ -3,7 +3,11 @@ package de.necon.clieman_backend.repository;
 import de.necon.clieman_backend.model.User;
 import de.necon.clieman_backend.model.VerificationToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Date;
 import java.util.Optional;
 
 public interface VerificationTokenRepository extends JpaRepository<VerificationToken, Long> {
@@ -21,4 +25,24 @@ public interface VerificationTokenRepository extends JpaRepository<VerificationT
      * @return The found token.
      */
     Optional<VerificationToken> findByUser(User user);
-}
\ No newline at end of file
+
+    /**
+     * Deletes the verification token of a user.
+     * @param userId The id of the user linked with the token to delete.
+     */
+    @Modifying
+    @Query("delete from VerificationToken t where t.user.id = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * Deletes a batch of tokens that are expired.
+     * @param now The current time.
+     * @param batchSize The maximum number of tokens to delete.
+     * @return The number of deleted tokens.
+     */
+    @Modifying
+    @Query(value = "delete from verification_token where id in " +
+            "(select id from verification_token where expiry_date < :now limit :batchSize)",
+            nativeQuery = true)
+    int deleteExpired(@Param("now") Date now, @Param("batchSize") int batchSize);
+}
@@ -1,11 +1,14 @@
 package de.necon.clieman_backend.security;
 
+import de.necon.clieman_backend.config.SecurityConstants;
 import de.necon.clieman_backend.exception.ServiceError;
 import de.necon.clieman_backend.model.User;
 import de.necon.clieman_backend.repository.UserRepository;
 import de.necon.clieman_backend.service.JWTTokenService;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
@@ -21,7 +24,6 @@ public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
     private final UserRepository userRepository;
     private final JWTTokenService tokenService;
 
-
     public JWTAuthorizationFilter(AuthenticationManager authenticationManager,
                                   UserRepository userRepository, JWTTokenService tokenService) {
         super(authenticationManager);
@@ -54,7 +56,12 @@ public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
         try {
             User user = tokenService.getFromToken(token);
 
-            var result = new UsernamePasswordAuthenticationToken(user.getEmail(), null, new ArrayList<>());
+            var authorities = new ArrayList<GrantedAuthority>();
+            if (user.isAdmin()) {
+                authorities.add(new SimpleGrantedAuthority("ROLE_" + SecurityConstants.ADMIN_ROLE));
+            }
+
+            var result = new UsernamePasswordAuthenticationToken(user.getEmail(), null, authorities);
             result.setDetails(user);
             return result;
         }catch (ServiceError e) {
@@ -1,12 +1,16 @@
 package de.necon.clieman_backend.service;
 
 import de.necon.clieman_backend.exception.ServiceError;
+import de.necon.clieman_backend.model.BatchOperation;
 import de.necon.clieman_backend.model.Client;
 import de.necon.clieman_backend.model.User;
+import org.javatuples.Pair;
 import org.springframework.dao.DataIntegrityViolationException;
 
 import javax.validation.ConstraintViolationException;
+import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ClientService {
 
@@ -18,6 +22,44 @@ public interface ClientService {
      */
     List<Client> getClientsOfUser(User user) throws ServiceError;
 
+    /**
+     * Provides a page of the clients created by the given user. The clients are ordered by their id.
+     * @param user The user for who we want retrieve the clients.
+     * @param after The id of the last client of the previous page or null for retrieving the first page.
+     * @param limit The maximum number of clients to return. Has to be between 1 and RepositoryConfig.MAX_PAGE_SIZE.
+     * @return The clients of the page. The list is never be null.
+     * @throws ServiceError If 'user' is null, if 'user' is not stored in the database or if 'limit' is out of range.
+     */
+    List<Client> getClientsOfUser(User user, String after, int limit) throws ServiceError;
+
+    /**
+     * Provides a version of the clients of the given user, that changes whenever a client of the user is added,
+     * updated or removed. No client is loaded for computing the version.
+     * @param user The user for who we want retrieve the version.
+     * @return The version. Is never null.
+     * @throws ServiceError If 'user' is null or if 'user' is not stored in the database.
+     */
+    String getClientsVersion(User user) throws ServiceError;
+
+    /**
+     * Provides the clients of the given user that were added or updated after a given time.
+     * @param user The user for who we want retrieve the clients.
+     * @param since Only clients modified after this time are returned.
+     * @return The modified clients. The list is never be null.
+     * @throws ServiceError If 'user' is null or if 'user' is not stored in the database.
+     */
+    List<Client> getClientsOfUserModifiedAfter(User user, Date since) throws ServiceError;
+
+    /**
+     * Passes the clients created by the given user one after another to a consumer. Other than
+     * {@link #getClientsOfUser(User)} the clients are not collected in memory: The persistence context is cleared
+     * periodically, so the consumer mustn't keep references to lazily loaded data of already consumed clients.
+     * @param user The user for who we want retrieve the clients.
+     * @param consumer The consumer of the clients.
+     * @throws ServiceError If 'user' is null or if 'user' is not stored in the database.
+     */
+    void forEachClientOfUser(User user, Consumer<Client> consumer) throws ServiceError;
+
     /**
      * Adds a not yet added client to the database.
      * @param client The client to be added.
@@ -40,11 +82,21 @@ public interface ClientService {
     void updateClient(Client client) throws ServiceError;
 
     /**
-     * Removes a client from the database.
+     * Removes a client from the database. The deletion is recorded with a tombstone for the delta sync.
      * @param client The client to remove.
      * @throws ServiceError If the client is not stored in the database.
      *
      * @throws NullPointerException If client is null.
      */
     void removeClient(Client client) throws ServiceError;
+
+    /**
+     * Applies add, update and remove operations on the clients of a user. All operations run in one transaction and
+     * are applied in the given order. An operation that fails is skipped and doesn't affect the other operations.
+     * @param user The user the clients belong to.
+     * @param operations The operations. Has to contain at most RepositoryConfig.MAX_BATCH_SIZE operations.
+     * @return For each operation the list of errors. The list is empty if the operation succeeded.
+     * @throws ServiceError If the user is not valid or if the number of operations is out of range.
+     */
+    List<List<String>> applyBatch(User user, List<Pair<BatchOperation, Client>> operations) throws ServiceError;
 }
@@ -1,20 +1,34 @@
 package de.necon.clieman_backend.service;
 
 import de.necon.clieman_backend.exception.ServiceError;
+import de.necon.clieman_backend.model.BatchOperation;
 import de.necon.clieman_backend.model.Client;
+import de.necon.clieman_backend.model.Tombstone;
 import de.necon.clieman_backend.model.User;
 import de.necon.clieman_backend.repository.ClientRepository;
-import de.necon.clieman_backend.repository.UserRepository;
+import de.necon.clieman_backend.repository.EventRepository;
+import de.necon.clieman_backend.repository.TombstoneRepository;
+import de.necon.clieman_backend.util.MessageExtractor;
+import org.javatuples.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.orm.jpa.JpaSystemException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import javax.validation.ConstraintViolationException;
-import java.util.List;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.*;
+import java.util.function.Consumer;
 
+import static de.necon.clieman_backend.config.RepositoryConfig.MAX_BATCH_SIZE;
+import static de.necon.clieman_backend.config.RepositoryConfig.MAX_PAGE_SIZE;
+import static de.necon.clieman_backend.config.RepositoryConfig.STREAM_FETCH_SIZE;
 import static de.necon.clieman_backend.config.ServiceErrorMessages.*;
 
 @Service
@@ -23,12 +37,23 @@ public class ClientServiceImpl implements ClientService {
 
     private static Logger logger = LoggerFactory.getLogger(ClientServiceImpl.class);
 
+    private static final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @Autowired
-    UserRepository userRepository;
+    UserCache userCache;
 
     @Autowired
     ClientRepository clientRepository;
 
+    @Autowired
+    EventRepository eventRepository;
+
+    @Autowired
+    TombstoneRepository tombstoneRepository;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
     @Override
     public List<Client> getClientsOfUser(User user) throws ServiceError {
 
@@ -36,13 +61,81 @@ public class ClientServiceImpl implements ClientService {
             throw new ServiceError(NO_USER);
         }
 
-        if (!userRepository.findByEmail(user.getEmail()).isPresent()) {
+        if (!userCache.findByEmail(user.getEmail()).isPresent()) {
             throw new ServiceError(USER_NOT_FOUND);
         }
 
         return clientRepository.findAllByUser(user);
     }
 
+    @Override
+    public List<Client> getClientsOfUser(User user, String after, int limit) throws ServiceError {
+
+        if (user == null) {
+            throw new ServiceError(NO_USER);
+        }
+
+        if (!userCache.findByEmail(user.getEmail()).isPresent()) {
+            throw new ServiceError(USER_NOT_FOUND);
+        }
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ServiceError(INVALID_PAGE_LIMIT);
+        }
+
+        return clientRepository.findPageByUser(user, after != null ? after : "", PageRequest.of(0, limit));
+    }
+
+    @Override
+    public String getClientsVersion(User user) throws ServiceError {
+
+        if (user == null) {
+            throw new ServiceError(NO_USER);
+        }
+
+        if (!userCache.findByEmail(user.getEmail()).isPresent()) {
+            throw new ServiceError(USER_NOT_FOUND);
+        }
+
+        return clientRepository.findCollectionStateByUser(user).toVersionString();
+    }
+
+    @Override
+    public List<Client> getClientsOfUserModifiedAfter(User user, Date since) throws ServiceError {
+
+        if (user == null) {
+            throw new ServiceError(NO_USER);
+        }
+
+        if (!userCache.findByEmail(user.getEmail()).isPresent()) {
+            throw new ServiceError(USER_NOT_FOUND);
+        }
+
+        return clientRepository.findAllByUserModifiedAfter(user, since);
+    }
+
+    @Override
+    public void forEachClientOfUser(User user, Consumer<Client> consumer) throws ServiceError {
+
+        if (user == null) {
+            throw new ServiceError(NO_USER);
+        }
+
+        if (!userCache.findByEmail(user.getEmail()).isPresent()) {
+            throw new ServiceError(USER_NOT_FOUND);
+        }
+
+        try (var clients = clientRepository.streamAllByUser(user)) {
+            int count = 0;
+            for (var iterator = clients.iterator(); iterator.hasNext(); ) {
+                consumer.accept(iterator.next());
+
+                // detach the already consumed clients so that memory usage doesn't grow with the result size.
+                if (++count % STREAM_FETCH_SIZE == 0) entityManager.clear();
+            }
+        }
+    }
+
     @Override
     public Client addClient(Client client) throws ServiceError {
         var id = client.getId().getId();
@@ -70,6 +163,7 @@ public class ClientServiceImpl implements ClientService {
 
         var optional = clientRepository.findById(id);
         if (optional.isEmpty()) throw new ServiceError(CLIENT_NOT_FOUND);
+        keepSyncState(client, optional.get());
 
         try {
             clientRepository.saveAndFlush(client);
@@ -85,7 +179,9 @@ public class ClientServiceImpl implements ClientService {
         if (optional.isEmpty()) throw new ServiceError(CLIENT_NOT_FOUND);
 
         try {
-            clientRepository.delete(client);
+            clientRepository.delete(optional.get());
+            tombstoneRepository.save(new Tombstone(client.getId().getUser(), Tombstone.Type.CLIENT,
+                    client.getId().getId()));
             clientRepository.flush();
         } catch (Exception e) {
             logger.error(e.toString());
@@ -93,9 +189,106 @@ public class ClientServiceImpl implements ClientService {
         }
     }
 
+    @Override
+    public List<List<String>> applyBatch(User user, List<Pair<BatchOperation, Client>> operations)
+            throws ServiceError {
+
+        checkUser(user);
+
+        if (operations == null || operations.size() > MAX_BATCH_SIZE) {
+            throw new ServiceError(INVALID_BATCH_SIZE);
+        }
+
+        // load all affected clients with one query
+        var ids = new HashSet<String>();
+        var removedIds = new HashSet<String>();
+        for (var operation : operations) {
+            var id = getIdString(operation.getValue1());
+            if (id == null) continue;
+            ids.add(id);
+            if (operation.getValue0() == BatchOperation.REMOVE) removedIds.add(id);
+        }
+
+        var storedClients = new HashMap<String, Client>();
+        if (!ids.isEmpty()) {
+            clientRepository.findAllByUserAndIds(user, ids).forEach(c -> storedClients.put(c.getId().getId(), c));
+        }
+
+        var referencedIds = new HashSet<String>();
+        if (!removedIds.isEmpty()) {
+            referencedIds.addAll(eventRepository.findReferencedClientIds(user.getId(), removedIds));
+        }
+
+        List<List<String>> results = new ArrayList<>(operations.size());
+        for (var operation : operations) {
+            try {
+                applyOperation(user, operation.getValue0(), operation.getValue1(), storedClients, referencedIds);
+                results.add(List.of());
+            } catch (ServiceError e) {
+                results.add(e.getErrors());
+            }
+        }
+
+        // the changes are written with one flush, so that hibernate can send them in JDBC batches
+        clientRepository.flush();
+        return results;
+    }
+
+    private void applyOperation(User user, BatchOperation operation, Client client, Map<String, Client> storedClients,
+                                Set<String> referencedIds) throws ServiceError {
+
+        if (operation == null || client == null || client.getId() == null) throw new ServiceError(MALFORMED_DATA);
+
+        var id = client.getId().getId();
+        if (id == null || id.isBlank()) throw new ServiceError(INVALID_ID);
+
+        client.getId().setUser(user);
+        var storedClient = storedClients.get(id);
+
+        switch (operation) {
+            case ADD:
+                if (storedClient != null) throw new ServiceError(CLIENT_ALREADY_EXISTS);
+                validate(client);
+                entityManager.persist(client);
+                storedClients.put(id, client);
+                break;
+            case UPDATE:
+                if (storedClient == null) throw new ServiceError(CLIENT_NOT_FOUND);
+                validate(client);
+                keepSyncState(client, storedClient);
+                storedClients.put(id, entityManager.merge(client));
+                break;
+            case REMOVE:
+                if (storedClient == null) throw new ServiceError(CLIENT_NOT_FOUND);
+                if (referencedIds.contains(id)) throw new ServiceError(CLIENT_CANNOT_BE_DELETED);
+                entityManager.remove(storedClient);
+                entityManager.persist(new Tombstone(user, Tombstone.Type.CLIENT, id));
+                storedClients.remove(id);
+                break;
+        }
+    }
+
+    /**
+     * Copies the server managed version and modification time of the stored client to a client received from a
+     * device, so that merging the received client resets neither the version nor the modification time.
+     */
+    private static void keepSyncState(Client client, Client storedClient) {
+        client.setVersion(storedClient.getVersion());
+        client.setLastModified(storedClient.getLastModified());
+    }
+
+    private static void validate(Client client) throws ServiceError {
+        var violations = validator.validate(client);
+        if (!violations.isEmpty()) throw new ServiceError(MessageExtractor.extract(violations));
+    }
+
+    private static String getIdString(Client client) {
+        return client != null && client.getId() != null ? client.getId().getId() : null;
+    }
+
     private void checkUser(User user) {
         if (user == null || user.getId() == null) throw new ServiceError(USER_NOT_FOUND);
-        var optional = userRepository.findById(user.getId());
+        var optional = userCache.findById(user.getId());
         if (optional.isEmpty()) throw new ServiceError(USER_NOT_FOUND);
         if (!user.isEnabled()) throw new ServiceError(USER_IS_DISABLED);
     }
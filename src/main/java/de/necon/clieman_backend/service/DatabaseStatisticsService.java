@@ -0,0 +1,20 @@
+package de.necon.clieman_backend.service;
+
+import de.necon.clieman_backend.network.DatabaseStatisticsDto;
+
+/**
+ * Provides the statistics of hibernate and of the instrumented data source. They are only collected if
+ * clieman.db-instrumentation.enabled is set (see DatabaseInstrumentationConfiguration).
+ */
+public interface DatabaseStatisticsService {
+
+    /**
+     * @return The statistics collected since the start or the last reset. Is never null.
+     */
+    DatabaseStatisticsDto getStatistics();
+
+    /**
+     * Resets the statistics of hibernate.
+     */
+    void resetStatistics();
+}
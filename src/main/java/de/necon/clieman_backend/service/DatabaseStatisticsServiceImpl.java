@@ -0,0 +1,104 @@
+package de.necon.clieman_backend.service;
+
+import de.necon.clieman_backend.config.DatabaseInstrumentationConfiguration;
+import de.necon.clieman_backend.network.DatabaseStatisticsDto;
+import de.necon.clieman_backend.util.InstrumentedDataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+
+@Service
+public class DatabaseStatisticsServiceImpl implements DatabaseStatisticsService {
+
+    /**
+     * The number of queries listed, ordered by their total execution time.
+     */
+    public static final int TOP_QUERIES = 10;
+
+    private final Statistics statistics;
+    private final InstrumentedDataSource dataSource;
+
+    public DatabaseStatisticsServiceImpl(EntityManagerFactory entityManagerFactory,
+                                         DataSource dataSource,
+                                         Environment env) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.dataSource = dataSource instanceof InstrumentedDataSource ? (InstrumentedDataSource) dataSource : null;
+
+        // Note: Enabled at runtime instead of with hibernate.generate_statistics, which would also log the metrics
+        // of every session
+        statistics.setStatisticsEnabled(DatabaseInstrumentationConfiguration.isEnabled(env));
+    }
+
+    @Override
+    public DatabaseStatisticsDto getStatistics() {
+        var dto = new DatabaseStatisticsDto();
+        dto.setEnabled(statistics.isStatisticsEnabled());
+
+        if (dataSource != null) {
+            dto.setStatementCount(dataSource.getStatementCount());
+            dto.setSlowStatementCount(dataSource.getSlowStatementCount());
+        }
+
+        dto.setPrepareStatementCount(statistics.getPrepareStatementCount());
+        dto.setQueryExecutionCount(statistics.getQueryExecutionCount());
+        dto.setQueryExecutionMaxTimeMillis(statistics.getQueryExecutionMaxTime());
+        dto.setSlowestQuery(statistics.getQueryExecutionMaxTimeQueryString());
+
+        dto.setEntityLoadCount(statistics.getEntityLoadCount());
+        dto.setEntityFetchCount(statistics.getEntityFetchCount());
+        dto.setEntityInsertCount(statistics.getEntityInsertCount());
+        dto.setEntityUpdateCount(statistics.getEntityUpdateCount());
+        dto.setEntityDeleteCount(statistics.getEntityDeleteCount());
+        dto.setCollectionLoadCount(statistics.getCollectionLoadCount());
+        dto.setCollectionFetchCount(statistics.getCollectionFetchCount());
+
+        dto.setSecondLevelCacheHitCount(statistics.getSecondLevelCacheHitCount());
+        dto.setSecondLevelCacheMissCount(statistics.getSecondLevelCacheMissCount());
+        dto.setSecondLevelCacheHitRatio(ratio(statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount()));
+        dto.setQueryCacheHitCount(statistics.getQueryCacheHitCount());
+        dto.setQueryCacheMissCount(statistics.getQueryCacheMissCount());
+        dto.setQueryCacheHitRatio(ratio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()));
+
+        dto.setQueries(Arrays.stream(statistics.getQueries())
+                .map(this::toQueryDto)
+                .sorted(Comparator.comparingLong((DatabaseStatisticsDto.QueryDto q) ->
+                        q.getExecutionAvgTimeMillis() * q.getExecutionCount()).reversed())
+                .limit(TOP_QUERIES)
+                .collect(Collectors.toList()));
+
+        return dto;
+    }
+
+    @Override
+    public void resetStatistics() {
+        statistics.clear();
+        if (dataSource != null) dataSource.resetCounts();
+    }
+
+    private DatabaseStatisticsDto.QueryDto toQueryDto(String query) {
+        var queryStatistics = statistics.getQueryStatistics(query);
+        var dto = new DatabaseStatisticsDto.QueryDto();
+        dto.setQuery(query);
+        dto.setExecutionCount(queryStatistics.getExecutionCount());
+        dto.setExecutionAvgTimeMillis(queryStatistics.getExecutionAvgTime());
+        dto.setExecutionMaxTimeMillis(queryStatistics.getExecutionMaxTime());
+        dto.setExecutionRowCount(queryStatistics.getExecutionRowCount());
+        return dto;
+    }
+
+    /**
+     * @return The share of hits or null, if there were neither hits nor misses.
+     */
+    private static Double ratio(long hits, long misses) {
+        if (hits + misses == 0) return null;
+        return (double) hits / (hits + misses);
+    }
+}
@@ -0,0 +1,50 @@
+package de.necon.clieman_backend.service;
+
+import de.necon.clieman_backend.model.OutboxEmail;
+import de.necon.clieman_backend.model.VerificationToken;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A service for sending emails asynchronously. Emails are stored in an outbox table within the current
+ * transaction and are sent by the EmailOutboxDispatcher once the transaction has committed.
+ */
+public interface EmailOutboxService {
+
+    /**
+     * Queues a simple email for sending.
+     * @param to The addressee.
+     * @param subject The subject the email is about.
+     * @param text The content of the email.
+     */
+    void queueMessage(String to, String subject, String text);
+
+    /**
+     * Queues an email to a user's email containing the verification token.
+     * @param token The token which is used to get the user's email address and the token.
+     */
+    void queueVerificationMessage(VerificationToken token);
+
+    /**
+     * Claims emails that are due for sending. Claimed emails aren't provided by this method again until their
+     * lease expired; so the emails should be marked as sent or failed before that.
+     * @param limit The maximum number of emails to claim.
+     * @return The claimed emails.
+     */
+    List<OutboxEmail> claimDueMessages(int limit);
+
+    /**
+     * Removes sent emails from the outbox.
+     * @param ids The ids of the sent emails.
+     */
+    void markSent(Collection<Long> ids);
+
+    /**
+     * Schedules failed emails for a retry with exponential backoff. Emails which have reached the maximum number
+     * of attempts are dropped.
+     * @param failures The ids of the failed emails mapped to the reason of the failure.
+     */
+    void markFailed(Map<Long, Exception> failures);
+}
@@ -0,0 +1,126 @@
+package de.necon.clieman_backend.service;
+
+import de.necon.clieman_backend.events.OnOutboxEmailQueuedEvent;
+import de.necon.clieman_backend.model.OutboxEmail;
+import de.necon.clieman_backend.model.VerificationToken;
+import de.necon.clieman_backend.repository.OutboxEmailRepository;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.*;
+
+@Service
+@Transactional
+public class EmailOutboxServiceImpl implements EmailOutboxService {
+
+    public static final String MAX_ATTEMPTS_PROPERTY = "clieman.email-outbox.max-attempts";
+    public static final String RETRY_DELAY_PROPERTY = "clieman.email-outbox.retry-delay-seconds";
+    public static final String MAX_RETRY_DELAY_PROPERTY = "clieman.email-outbox.max-retry-delay-seconds";
+    public static final String LEASE_PROPERTY = "clieman.email-outbox.lease-seconds";
+
+    private static final int DEFAULT_MAX_ATTEMPTS = 10;
+    private static final long DEFAULT_RETRY_DELAY = 30;
+    private static final long DEFAULT_MAX_RETRY_DELAY = 60 * 60;
+    private static final long DEFAULT_LEASE = 5 * 60;
+
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxServiceImpl.class);
+
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final Duration maxRetryDelay;
+    private final Duration lease;
+
+    public EmailOutboxServiceImpl(OutboxEmailRepository outboxEmailRepository,
+                                  EmailService emailService,
+                                  ApplicationEventPublisher eventPublisher,
+                                  Environment env) {
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.emailService = emailService;
+        this.eventPublisher = eventPublisher;
+
+        maxAttempts = env.getProperty(MAX_ATTEMPTS_PROPERTY, Integer.class, DEFAULT_MAX_ATTEMPTS);
+        retryDelay = Duration.ofSeconds(env.getProperty(RETRY_DELAY_PROPERTY, Long.class, DEFAULT_RETRY_DELAY));
+        maxRetryDelay = Duration.ofSeconds(env.getProperty(MAX_RETRY_DELAY_PROPERTY, Long.class,
+                DEFAULT_MAX_RETRY_DELAY));
+        lease = Duration.ofSeconds(env.getProperty(LEASE_PROPERTY, Long.class, DEFAULT_LEASE));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void queueMessage(String to, String subject, String text) {
+        var email = outboxEmailRepository.save(new OutboxEmail(to, subject, text));
+        eventPublisher.publishEvent(new OnOutboxEmailQueuedEvent(email));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void queueVerificationMessage(VerificationToken token) {
+        var message = emailService.createVerificationMessage(token);
+        queueMessage(message.getTo()[0], message.getSubject(), message.getText());
+    }
+
+    @Override
+    public List<OutboxEmail> claimDueMessages(int limit) {
+        var now = new Date();
+        var emails = outboxEmailRepository.findDue(now, PageRequest.of(0, limit));
+
+        var leaseEnd = new Date(now.getTime() + lease.toMillis());
+        for (var email : emails) {
+            email.setAttempts(email.getAttempts() + 1);
+            email.setNextAttemptAt(leaseEnd);
+        }
+
+        return emails;
+    }
+
+    @Override
+    public void markSent(Collection<Long> ids) {
+        if (!ids.isEmpty()) outboxEmailRepository.deleteByIds(ids);
+    }
+
+    @Override
+    public void markFailed(Map<Long, Exception> failures) {
+        if (failures.isEmpty()) return;
+
+        var now = System.currentTimeMillis();
+        var dropped = new ArrayList<Long>();
+
+        for (var email : outboxEmailRepository.findAllById(failures.keySet())) {
+            var error = failures.get(email.getId());
+
+            if (email.getAttempts() >= maxAttempts) {
+                logger.error("Giving up sending " + email + ": " + error);
+                dropped.add(email.getId());
+                continue;
+            }
+
+            logger.warn("Couldn't send " + email + ": " + error);
+            email.setLastError(StringUtils.abbreviate(String.valueOf(error), MAX_ERROR_LENGTH));
+            email.setNextAttemptAt(new Date(now + getRetryDelay(email.getAttempts()).toMillis()));
+        }
+
+        if (!dropped.isEmpty()) outboxEmailRepository.deleteByIds(dropped);
+    }
+
+    /**
+     * @return The delay before the next attempt after the given number of failed attempts.
+     */
+    private Duration getRetryDelay(int attempts) {
+        var delay = retryDelay.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxRetryDelay) > 0 ? maxRetryDelay : delay;
+    }
+}
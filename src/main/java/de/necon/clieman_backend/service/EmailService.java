@@ -1,6 +1,10 @@
 package de.necon.clieman_backend.service;
 
 import de.necon.clieman_backend.model.VerificationToken;
+import org.springframework.mail.MailException;
+import org.springframework.mail.SimpleMailMessage;
+
+import java.util.List;
 
 /**
  * A service for sending emails.
@@ -20,4 +24,19 @@ public interface EmailService {
      * @param token The token which is used to get the user's email address and the token.
      */
     void sendVerificationMessage(VerificationToken token);
-}
\ No newline at end of file
+
+    /**
+     * Creates the email containing the verification token without sending it.
+     * @param token The token which is used to get the user's email address and the token.
+     * @return The created email.
+     */
+    SimpleMailMessage createVerificationMessage(VerificationToken token);
+
+    /**
+     * Sends several emails using a single connection to the mail server.
+     * @param messages The emails to send.
+     * @throws MailException If some of the emails couldn't be sent. A MailSendException provides the failed
+     * messages.
+     */
+    void sendMessages(List<SimpleMailMessage> messages) throws MailException;
+}
@@ -1,23 +1,25 @@
 package de.necon.clieman_backend.service;
 
 import de.necon.clieman_backend.model.VerificationToken;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.commons.lang3.BooleanUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
-import javax.annotation.PostConstruct;
+import java.util.List;
 
 @Service
 public class EmailServiceImpl implements EmailService {
 
     private static String FROM = "noreply@dateman.com";
-    private static final String EMAIL_ADDRESS_PROPERTY = "spring.mail.username";
-    private static final Logger logger = LoggerFactory.getLogger(EmailServiceImpl.class);
+
+    /**
+     * Records the time needed for handing messages over to the mail server.
+     */
+    public static final String SEND_TIMER = "clieman.smtp.send";
 
     @Autowired
     private JavaMailSender emailSender;
@@ -25,15 +27,8 @@ public class EmailServiceImpl implements EmailService {
     @Autowired
     private Environment env;
 
-    @PostConstruct
-    public void init() {
-        //send a test email for testing that everything is setup
-
-        if (!isTestEnvironment()) {
-            logger.info("testing email sending...");
-            sendSimpleMessage(env.getProperty(EMAIL_ADDRESS_PROPERTY), "init test", "");
-        }
-    }
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @Override
     public void sendSimpleMessage(String to, String subject, String text) {
@@ -44,22 +39,36 @@ public class EmailServiceImpl implements EmailService {
         message.setTo(email);
         message.setSubject(subject);
         message.setText(text);
-        emailSender.send(message);
+        meterRegistry.timer(SEND_TIMER).record(() -> emailSender.send(message));
     }
 
     @Override
     public void sendVerificationMessage(VerificationToken token) {
+        sendMessages(List.of(createVerificationMessage(token)));
+    }
+
+    @Override
+    public SimpleMailMessage createVerificationMessage(VerificationToken token) {
 
         SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(FROM);
-        String email = preprocessEmail(token.getUser().getEmail());
-        message.setTo(email);
+        message.setTo(token.getUser().getEmail());
         message.setSubject("Verification token");
 
         String text = "Your verification token is: " + token.getToken();
         message.setText(text);
+        return message;
+    }
+
+    @Override
+    public void sendMessages(List<SimpleMailMessage> messages) {
 
-        emailSender.send(message);
+        for (var message : messages) {
+            message.setFrom(FROM);
+            var to = message.getTo();
+            if (to != null && to.length == 1) message.setTo(preprocessEmail(to[0]));
+        }
+
+        meterRegistry.timer(SEND_TIMER).record(() -> emailSender.send(messages.toArray(new SimpleMailMessage[0])));
     }
 
     private String preprocessEmail(String email) {
@@ -76,8 +85,4 @@ public class EmailServiceImpl implements EmailService {
         Boolean noOverride = BooleanUtils.toBoolean(env.getProperty("clieman.test.no-override"));
         return (testEmail != null && !noOverride);
     }
-
-    private boolean isTestEnvironment() {
-        return BooleanUtils.toBoolean(env.getProperty("clieman.test.enabled"));
-    }
 }
\ No newline at end of file
@@ -1,11 +1,16 @@
 package de.necon.clieman_backend.service;
 
 import de.necon.clieman_backend.exception.ServiceError;
+import de.necon.clieman_backend.model.BatchOperation;
 import de.necon.clieman_backend.model.Client;
 import de.necon.clieman_backend.model.Event;
+import de.necon.clieman_backend.model.EventView;
 import de.necon.clieman_backend.model.User;
+import org.javatuples.Pair;
 
+import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface EventService {
 
@@ -17,6 +22,64 @@ public interface EventService {
      */
     List<Event> getEventsOfUser(User user) throws ServiceError;
 
+    /**
+     * Provides read only views of the events created by the given user. Other than {@link #getEventsOfUser(User)}
+     * neither the clients nor the user of the events are loaded.
+     * @param user The user for who we want retrieve the events.
+     * @return The event views of the user. The list is never be null.
+     * @throws ServiceError If 'user' is null or if 'user' is not stored in the database.
+     */
+    List<EventView> getEventViewsOfUser(User user) throws ServiceError;
+
+    /**
+     * Provides a page of read only views of the events created by the given user. The events are ordered by their id.
+     * @param user The user for who we want retrieve the events.
+     * @param after The id of the last event of the previous page or null for retrieving the first page.
+     * @param limit The maximum number of events to return. Has to be between 1 and RepositoryConfig.MAX_PAGE_SIZE.
+     * @return The event views of the page. The list is never be null.
+     * @throws ServiceError If 'user' is null, if 'user' is not stored in the database or if 'limit' is out of range.
+     */
+    List<EventView> getEventViewsOfUser(User user, String after, int limit) throws ServiceError;
+
+    /**
+     * Provides a version of the events of the given user, that changes whenever an event of the user is added,
+     * updated or removed. No event is loaded for computing the version.
+     * @param user The user for who we want retrieve the version.
+     * @return The version. Is never null.
+     * @throws ServiceError If 'user' is null or if 'user' is not stored in the database.
+     */
+    String getEventsVersion(User user) throws ServiceError;
+
+    /**
+     * Provides read only views of the events of the given user that were added or updated after a given time.
+     * @param user The user for who we want retrieve the events.
+     * @param since Only events modified after this time are returned.
+     * @return The views of the modified events. The list is never be null.
+     * @throws ServiceError If 'user' is null or if 'user' is not stored in the database.
+     */
+    List<EventView> getEventViewsOfUserModifiedAfter(User user, Date since) throws ServiceError;
+
+    /**
+     * Passes the events created by the given user one after another to a consumer. Other than
+     * {@link #getEventsOfUser(User)} the events are not collected in memory: The persistence context is cleared
+     * periodically, so the consumer mustn't keep references to lazily loaded data of already consumed events.
+     * @param user The user for who we want retrieve the events.
+     * @param consumer The consumer of the events.
+     * @throws ServiceError If 'user' is null or if 'user' is not stored in the database.
+     */
+    void forEachEventOfUser(User user, Consumer<Event> consumer) throws ServiceError;
+
+    /**
+     * Provides read only views of the events of the given user that overlap the time window [from, to].
+     * @param user The user for who we want retrieve the events.
+     * @param from The begin of the time window.
+     * @param to The end of the time window.
+     * @return The event views of the user within the time window. The list is never be null.
+     * @throws ServiceError If 'user' is null, if 'user' is not stored in the database, if 'from' or 'to' is null or
+     * if 'from' is after 'to'.
+     */
+    List<EventView> getEventViewsOfUserInRange(User user, Date from, Date to) throws ServiceError;
+
     /**
      * Provides all events referencing a client.
      * @param client The client to retrieve the events from.
@@ -25,6 +88,18 @@ public interface EventService {
      */
     List<Event> getEventsOfClient(Client client) throws ServiceError;
 
+    /**
+     * Provides a page of the events referencing a client as views ordered by their id.
+     * @param user The user of the client.
+     * @param clientId The id string of the client.
+     * @param after The id of the last event of the previous page or null for the first page.
+     * @param limit The maximum number of events of the page. Has to be in [1, MAX_PAGE_SIZE].
+     * @return The event views of the page. The list is never null.
+     * @throws ServiceError If 'user' is null, if 'user' is not stored in the database, if the client is not
+     * stored in the database or if 'limit' is out of range.
+     */
+    List<EventView> getEventViewsOfClient(User user, String clientId, String after, int limit) throws ServiceError;
+
     /**
      * Adds a not yet added event to the database.
      * @param event The client to be added.
@@ -42,9 +117,19 @@ public interface EventService {
     void updateEvent(Event event) throws ServiceError;
 
     /**
-     * Removes an event from the database.
+     * Removes an event from the database. The deletion is recorded with a tombstone for the delta sync.
      * @param event The event to remove.
      * @throws ServiceError If the event is null or if the event is not stored in the database.
      */
     void removeEvent(Event event) throws ServiceError;
-}
\ No newline at end of file
+
+    /**
+     * Applies add, update and remove operations on the events of a user. All operations run in one transaction and
+     * are applied in the given order. An operation that fails is skipped and doesn't affect the other operations.
+     * @param user The user the events belong to.
+     * @param operations The operations. Has to contain at most RepositoryConfig.MAX_BATCH_SIZE operations.
+     * @return For each operation the list of errors. The list is empty if the operation succeeded.
+     * @throws ServiceError If the user is not valid or if the number of operations is out of range.
+     */
+    List<List<String>> applyBatch(User user, List<Pair<BatchOperation, Event>> operations) throws ServiceError;
+}
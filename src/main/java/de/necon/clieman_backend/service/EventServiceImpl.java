@@ -1,32 +1,59 @@
 package de.necon.clieman_backend.service;
 
 import de.necon.clieman_backend.exception.ServiceError;
+import de.necon.clieman_backend.model.BatchOperation;
 import de.necon.clieman_backend.model.Client;
 import de.necon.clieman_backend.model.Event;
+import de.necon.clieman_backend.model.EventView;
+import de.necon.clieman_backend.model.ID;
+import de.necon.clieman_backend.model.Tombstone;
 import de.necon.clieman_backend.model.User;
+import de.necon.clieman_backend.repository.ClientRepository;
 import de.necon.clieman_backend.repository.EventRepository;
-import de.necon.clieman_backend.repository.UserRepository;
+import de.necon.clieman_backend.repository.TombstoneRepository;
 import de.necon.clieman_backend.util.MessageExtractor;
+import org.javatuples.Pair;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.orm.jpa.JpaObjectRetrievalFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import javax.validation.ConstraintViolationException;
-import java.util.List;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+import static de.necon.clieman_backend.config.RepositoryConfig.MAX_BATCH_SIZE;
+import static de.necon.clieman_backend.config.RepositoryConfig.MAX_PAGE_SIZE;
+import static de.necon.clieman_backend.config.RepositoryConfig.STREAM_FETCH_SIZE;
 import static de.necon.clieman_backend.config.ServiceErrorMessages.*;
 
 @Service
 @Transactional
 public class EventServiceImpl implements EventService {
 
+    private static final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @Autowired
-    UserRepository userRepository;
+    UserCache userCache;
 
     @Autowired
     EventRepository eventRepository;
 
+    @Autowired
+    ClientRepository clientRepository;
+
+    @Autowired
+    TombstoneRepository tombstoneRepository;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
     @Override
     public List<Event> getEventsOfUser(User user) throws ServiceError {
 
@@ -34,11 +61,104 @@ public class EventServiceImpl implements EventService {
         return eventRepository.findAllByUser(user);
     }
 
+    @Override
+    public List<EventView> getEventViewsOfUser(User user) throws ServiceError {
+
+        baseCheck(user);
+
+        var views = eventRepository.findAllViewsByUser(user);
+        if (!views.isEmpty()) {
+            addClientIds(views, eventRepository.findClientReferencesByUser(user.getId()));
+        }
+        return views;
+    }
+
+    @Override
+    public List<EventView> getEventViewsOfUser(User user, String after, int limit) throws ServiceError {
+
+        baseCheck(user);
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ServiceError(INVALID_PAGE_LIMIT);
+        }
+
+        var views = eventRepository.findViewPageByUser(user, after != null ? after : "", PageRequest.of(0, limit));
+        addClientIdsOfEvents(user, views);
+        return views;
+    }
+
+    @Override
+    public String getEventsVersion(User user) throws ServiceError {
+
+        baseCheck(user);
+        return eventRepository.findCollectionStateByUser(user).toVersionString();
+    }
+
+    @Override
+    public List<EventView> getEventViewsOfUserModifiedAfter(User user, Date since) throws ServiceError {
+
+        baseCheck(user);
+
+        var views = eventRepository.findViewsByUserModifiedAfter(user, since);
+        addClientIdsOfEvents(user, views);
+        return views;
+    }
+
+    @Override
+    public void forEachEventOfUser(User user, Consumer<Event> consumer) throws ServiceError {
+
+        baseCheck(user);
+
+        try (var events = eventRepository.streamAllByUser(user)) {
+            int count = 0;
+            for (var iterator = events.iterator(); iterator.hasNext(); ) {
+                consumer.accept(iterator.next());
+
+                // detach the already consumed events so that memory usage doesn't grow with the result size.
+                if (++count % STREAM_FETCH_SIZE == 0) entityManager.clear();
+            }
+        }
+    }
+
+    @Override
+    public List<EventView> getEventViewsOfUserInRange(User user, Date from, Date to) throws ServiceError {
+
+        baseCheck(user);
+
+        if (from == null || to == null || from.after(to)) {
+            throw new ServiceError(INVALID_DATE_RANGE);
+        }
+
+        var views = eventRepository.findAllViewsByUserInRange(user, from, to);
+        addClientIdsOfEvents(user, views);
+        return views;
+    }
+
     @Override
     public List<Event> getEventsOfClient(Client client) throws ServiceError {
         return eventRepository.findAllByClient(client);
     }
 
+    @Override
+    public List<EventView> getEventViewsOfClient(User user, String clientId, String after, int limit)
+            throws ServiceError {
+
+        baseCheck(user);
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ServiceError(INVALID_PAGE_LIMIT);
+        }
+
+        if (clientId == null || !clientRepository.existsById(new ID(clientId, user))) {
+            throw new ServiceError(CLIENT_NOT_FOUND);
+        }
+
+        var views = eventRepository.findViewPageByClient(user, clientId, after != null ? after : "",
+                PageRequest.of(0, limit));
+        addClientIdsOfEvents(user, views);
+        return views;
+    }
+
     @Override
     public Event addEvent(Event event) throws ServiceError {
 
@@ -55,6 +175,9 @@ public class EventServiceImpl implements EventService {
         var optional = eventRepository.findById(event.getId());
         if (optional.isPresent()) throw new ServiceError(EVENT_ALREADY_EXISTS);
 
+        if (event.getClients() == null) throw new ServiceError(EVENT_NOT_VALID);
+        event.setClients(resolveClients(event.getClients(), loadClients(event.getUser(), event.getClients())));
+
         try {
             return eventRepository.saveAndFlush(event);
         } catch (ConstraintViolationException | JpaObjectRetrievalFailureException e) {
@@ -67,17 +190,31 @@ public class EventServiceImpl implements EventService {
 
         baseCheck(event);
 
-        var id = event.getId();
-
-        var optional = eventRepository.findById(id);
+        var optional = eventRepository.findById(event.getId());
         if (optional.isEmpty()) throw new ServiceError(EVENT_NOT_FOUND);
+        checkUser(event.getUser());
+
+        // the stored event is updated in place, so that only the changed columns and client links are written.
+        var storedEvent = optional.get();
+        var clientsChanged = updateClients(storedEvent, event.getClients());
+
+        storedEvent.setColor(event.getColor());
+        storedEvent.setDetails(event.getDetails());
+        storedEvent.setEnd(event.getEnd());
+        storedEvent.setName(event.getName());
+        storedEvent.setStart(event.getStart());
+
+        // the links don't belong to the columns of the event, so their modification has to be recorded explicitly
+        if (clientsChanged) storedEvent.markModified();
 
         try {
-            removeEvent(event);
-            addEvent(event);
+            eventRepository.flush();
         } catch(ConstraintViolationException e) {
             throw new ServiceError(MessageExtractor.extract(e), e);
         }
+
+        // the client links were changed bypassing the persistence context, so the event has to be reloaded next time.
+        entityManager.detach(storedEvent);
     }
 
     @Override
@@ -88,17 +225,272 @@ public class EventServiceImpl implements EventService {
         var optional = eventRepository.findById(event.getId());
         if (optional.isEmpty()) throw new ServiceError(EVENT_NOT_FOUND);
 
-        eventRepository.delete(event);
+        eventRepository.delete(optional.get());
+        tombstoneRepository.save(new Tombstone(event.getUser(), Tombstone.Type.EVENT, event.getId().getId()));
         eventRepository.flush();
     }
 
+    @Override
+    public List<List<String>> applyBatch(User user, List<Pair<BatchOperation, Event>> operations)
+            throws ServiceError {
+
+        checkUser(user);
+
+        if (operations == null || operations.size() > MAX_BATCH_SIZE) {
+            throw new ServiceError(INVALID_BATCH_SIZE);
+        }
+
+        // load all affected events and all referenced clients with one query each
+        var ids = new HashSet<String>();
+        var clientIds = new HashSet<String>();
+        for (var operation : operations) {
+            var event = operation.getValue1();
+            if (event == null || event.getId() == null || event.getId().getId() == null) continue;
+            ids.add(event.getId().getId());
+
+            if (event.getClients() == null || operation.getValue0() == BatchOperation.REMOVE) continue;
+            event.getClients().forEach(c -> {
+                if (c != null && c.getId() != null && c.getId().getId() != null) clientIds.add(c.getId().getId());
+            });
+        }
+
+        var storedEvents = new HashMap<String, Event>();
+        if (!ids.isEmpty()) {
+            eventRepository.findAllByUserAndIds(user, ids).forEach(e -> storedEvents.put(e.getId().getId(), e));
+        }
+
+        var clients = new HashMap<String, Client>();
+        if (!clientIds.isEmpty()) {
+            clientRepository.findAllByUserAndIds(user, clientIds).forEach(c -> clients.put(c.getId().getId(), c));
+        }
+
+        // the client links of the updated events are loaded with one query, so that only their difference is written
+        var updatedIds = new HashSet<String>();
+        for (var operation : operations) {
+            var id = operation.getValue1() != null && operation.getValue1().getId() != null ?
+                    operation.getValue1().getId().getId() : null;
+            if (operation.getValue0() == BatchOperation.UPDATE && storedEvents.containsKey(id)) updatedIds.add(id);
+        }
+
+        var storedLinks = new HashMap<String, Set<String>>();
+        if (!updatedIds.isEmpty()) {
+            updatedIds.forEach(id -> storedLinks.put(id, new HashSet<>()));
+            for (var reference : eventRepository.findClientReferencesByUserAndEvents(user.getId(), updatedIds)) {
+                storedLinks.get((String)reference[0]).add((String)reference[1]);
+            }
+        }
+        var newLinks = new HashMap<String, Set<String>>();
+
+        List<List<String>> results = new ArrayList<>(operations.size());
+        for (var operation : operations) {
+            try {
+                applyOperation(user, operation.getValue0(), operation.getValue1(), storedEvents, clients,
+                        storedLinks, newLinks);
+                results.add(List.of());
+            } catch (ServiceError e) {
+                results.add(e.getErrors());
+            }
+        }
+
+        // the changes are written with one flush, so that hibernate can send them in JDBC batches
+        eventRepository.flush();
+
+        // the links are changed after the flush, as they may reference events and clients added by this batch
+        for (var entry : newLinks.entrySet()) {
+            var eventId = entry.getKey();
+            updateClientLinks(user.getId(), eventId, storedLinks.get(eventId), entry.getValue());
+            // the client links were changed bypassing the persistence context
+            entityManager.detach(storedEvents.get(eventId));
+        }
+
+        return results;
+    }
+
+    /**
+     * @param storedLinks The ids of the clients linked to the stored events that are updated by the batch.
+     * @param newLinks Collects the ids of the clients to link for the stored events, whose links are changed.
+     */
+    private void applyOperation(User user, BatchOperation operation, Event event, Map<String, Event> storedEvents,
+                                Map<String, Client> clients, Map<String, Set<String>> storedLinks,
+                                Map<String, Set<String>> newLinks) throws ServiceError {
+
+        if (operation == null || event == null || event.getId() == null) throw new ServiceError(MALFORMED_DATA);
+
+        var id = event.getId().getId();
+        if (id == null || id.isBlank()) throw new ServiceError(INVALID_ID);
+
+        event.setUser(user);
+        var storedEvent = storedEvents.get(id);
+
+        switch (operation) {
+            case ADD:
+                if (storedEvent != null) throw new ServiceError(EVENT_ALREADY_EXISTS);
+                validate(event);
+                event.setClients(resolveClients(event.getClients(), clients));
+                entityManager.persist(event);
+                storedEvents.put(id, event);
+                break;
+            case UPDATE:
+                if (storedEvent == null) throw new ServiceError(EVENT_NOT_FOUND);
+                validate(event);
+                var resolvedClients = resolveClients(event.getClients(), clients);
+                storedEvent.setColor(event.getColor());
+                storedEvent.setDetails(event.getDetails());
+                storedEvent.setEnd(event.getEnd());
+                storedEvent.setName(event.getName());
+                storedEvent.setStart(event.getStart());
+
+                if (!storedLinks.containsKey(id)) {
+                    // the event was added by this batch and isn't written yet
+                    storedEvent.setClients(resolvedClients);
+                    break;
+                }
+
+                // replacing the clients of a stored event would rewrite all of its links (see updateClientLinks)
+                var clientIds = resolvedClients.stream().map(c -> c.getId().getId()).collect(Collectors.toSet());
+                if (!clientIds.equals(newLinks.getOrDefault(id, storedLinks.get(id)))) {
+                    newLinks.put(id, clientIds);
+                    // the links don't belong to the columns of the event, so their modification has to be recorded
+                    // explicitly
+                    storedEvent.markModified();
+                }
+                break;
+            case REMOVE:
+                if (storedEvent == null) throw new ServiceError(EVENT_NOT_FOUND);
+                storedLinks.remove(id);
+                newLinks.remove(id);
+                entityManager.remove(storedEvent);
+                entityManager.persist(new Tombstone(user, Tombstone.Type.EVENT, id));
+                storedEvents.remove(id);
+                break;
+        }
+    }
+
+    /**
+     * Loads the stored clients referenced by the given client references with one query.
+     * @return The stored clients by their id. References to unknown clients have no entry.
+     */
+    private Map<String, Client> loadClients(User user, List<Client> references) {
+        var ids = new HashSet<String>();
+        for (var reference : references) {
+            if (reference != null && reference.getId() != null && reference.getId().getId() != null) {
+                ids.add(reference.getId().getId());
+            }
+        }
+
+        var clients = new HashMap<String, Client>();
+        if (!ids.isEmpty()) {
+            clientRepository.findAllByUserAndIds(user, ids).forEach(c -> clients.put(c.getId().getId(), c));
+        }
+        return clients;
+    }
+
+    /**
+     * Replaces the clients of an event by the matching stored clients.
+     * @throws ServiceError EVENT_NOT_VALID (once for all of them) if at least one of the clients doesn't exist.
+     */
+    private static List<Client> resolveClients(List<Client> clients, Map<String, Client> storedClients) {
+        List<Client> result = new ArrayList<>(clients.size());
+        for (var client : clients) {
+            var storedClient = client != null && client.getId() != null ?
+                    storedClients.get(client.getId().getId()) : null;
+            if (storedClient == null) throw new ServiceError(EVENT_NOT_VALID);
+            result.add(storedClient);
+        }
+        return result;
+    }
+
+    private static void validate(Event event) throws ServiceError {
+        var violations = validator.validate(event);
+        if (!violations.isEmpty()) throw new ServiceError(MessageExtractor.extract(violations));
+    }
+
     private void checkUser(User user) {
         if (user == null || user.getId() == null) throw new ServiceError(USER_NOT_FOUND);
-        var optional = userRepository.findById(user.getId());
+        var optional = userCache.findById(user.getId());
         if (optional.isEmpty()) throw new ServiceError(USER_NOT_FOUND);
         if (!user.isEnabled()) throw new ServiceError(USER_IS_DISABLED);
     }
 
+    /**
+     * Applies the difference between the stored client links of an event and the given clients directly to the
+     * join table, so that unchanged links are neither loaded nor rewritten.
+     * @return true if at least one link was added or removed.
+     */
+    private boolean updateClients(Event storedEvent, List<Client> clients) {
+        if (clients == null) throw new ServiceError(EVENT_NOT_VALID);
+
+        var newIds = new HashSet<String>();
+        for (var client : clients) {
+            if (client == null || client.getId() == null) throw new ServiceError(EVENT_NOT_VALID);
+            newIds.add(client.getId().getId());
+        }
+
+        var userId = storedEvent.getId().getUserId();
+        var eventId = storedEvent.getId().getId();
+
+        var linkedIds = new HashSet<String>();
+        for (var reference : eventRepository.findClientReferencesByUserAndEvents(userId, List.of(eventId))) {
+            linkedIds.add((String)reference[1]);
+        }
+
+        return updateClientLinks(userId, eventId, linkedIds, newIds);
+    }
+
+    /**
+     * Removes the links to the clients, that aren't linked anymore, and adds the links to the new clients.
+     * Note: Hibernate maps the clients as bag, which is deleted and inserted completely on every change.
+     * @param linkedIds The ids of the currently linked clients.
+     * @param clientIds The ids of the clients to link.
+     * @return true if at least one link was added or removed.
+     * @throws ServiceError EVENT_NOT_VALID if at least one of the clients doesn't exist.
+     */
+    private boolean updateClientLinks(Long userId, String eventId, Set<String> linkedIds, Set<String> clientIds) {
+        var addedIds = new HashSet<>(clientIds);
+        var removedIds = new HashSet<String>();
+        for (var clientId : linkedIds) {
+            if (!addedIds.remove(clientId)) removedIds.add(clientId);
+        }
+
+        if (!removedIds.isEmpty()) {
+            eventRepository.removeClientReferences(userId, eventId, removedIds);
+        }
+
+        if (!addedIds.isEmpty() && eventRepository.addClientReferences(userId, eventId, addedIds) != addedIds.size()) {
+            // at least one of the clients doesn't exist
+            throw new ServiceError(EVENT_NOT_VALID);
+        }
+
+        return !removedIds.isEmpty() || !addedIds.isEmpty();
+    }
+
+    /**
+     * Fills the client ids of event views. The client references are queried for at most MAX_PAGE_SIZE events
+     * at once.
+     */
+    private void addClientIdsOfEvents(User user, List<EventView> views) {
+        for (int i = 0; i < views.size(); i += MAX_PAGE_SIZE) {
+            var chunk = views.subList(i, Math.min(i + MAX_PAGE_SIZE, views.size()));
+            var eventIds = chunk.stream().map(EventView::getId).collect(Collectors.toList());
+            addClientIds(chunk, eventRepository.findClientReferencesByUserAndEvents(user.getId(), eventIds));
+        }
+    }
+
+    /**
+     * Assigns (event id, client id) pairs to the matching event views.
+     */
+    private void addClientIds(List<EventView> views, List<Object[]> clientReferences) {
+        var viewsById = new HashMap<String, EventView>(views.size() * 2);
+        for (var view : views) {
+            viewsById.put(view.getId(), view);
+        }
+
+        for (var reference : clientReferences) {
+            var view = viewsById.get((String)reference[0]);
+            if (view != null) view.getClientIds().add((String)reference[1]);
+        }
+    }
+
     private void baseCheck(Event event) {
         if (event == null || event.getId() == null) {
             throw new ServiceError(NO_EVENT);
@@ -112,7 +504,7 @@ public class EventServiceImpl implements EventService {
             throw new ServiceError(NO_USER);
         }
 
-        if (userRepository.findByEmail(user.getEmail()).isEmpty()) {
+        if (userCache.findByEmail(user.getEmail()).isEmpty()) {
             throw new ServiceError(USER_NOT_FOUND);
         }
     }
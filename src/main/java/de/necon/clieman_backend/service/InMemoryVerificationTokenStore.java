@@ -0,0 +1,145 @@
+package de.necon.clieman_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import de.necon.clieman_backend.exception.ServiceError;
+import de.necon.clieman_backend.model.User;
+import de.necon.clieman_backend.model.VerificationToken;
+import de.necon.clieman_backend.util.MessageExtractor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static de.necon.clieman_backend.config.ServiceErrorMessages.ANOTHER_TOKEN_ALREADY_EXISTS;
+import static de.necon.clieman_backend.config.ServiceErrorMessages.NO_USER;
+
+/**
+ * Keeps the verification tokens in memory. Tokens are evicted when they expire (caffeine schedules variable
+ * expiration with a hierarchical timer wheel), so expired tokens never have to be searched for.
+ * <p>
+ * Tokens are lost on restart and aren't shared between nodes, so this store is only suitable for single node
+ * deployments.
+ */
+@Service
+@ConditionalOnProperty(name = VerificationTokenStore.TYPE_PROPERTY, havingValue = "memory")
+public class InMemoryVerificationTokenStore implements VerificationTokenStore {
+
+    private static final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    /**
+     * The tokens mapped to the id of their user.
+     */
+    private final Cache<Long, VerificationToken> tokensByUser;
+
+    /**
+     * The ids of the users mapped to the textual representation of their token.
+     */
+    private final Map<String, Long> userIdsByToken = new ConcurrentHashMap<>();
+
+    public InMemoryVerificationTokenStore() {
+        tokensByUser = Caffeine.newBuilder()
+                .expireAfter(new TokenExpiry())
+                .scheduler(Scheduler.systemScheduler())
+                // removal notifications are delivered synchronously, so that they can't interfere with later puts
+                .executor(Runnable::run)
+                .removalListener((Long userId, VerificationToken token, RemovalCause cause) -> {
+                    if (userId != null && token != null) userIdsByToken.remove(token.getToken(), userId);
+                })
+                .build();
+    }
+
+    @Override
+    public Optional<VerificationToken> findByToken(String token) {
+        if (token == null) return Optional.empty();
+
+        var userId = userIdsByToken.get(token);
+        if (userId == null) return Optional.empty();
+
+        var verificationToken = tokensByUser.getIfPresent(userId);
+        if (verificationToken == null || !verificationToken.getToken().equals(token)) return Optional.empty();
+        return Optional.of(verificationToken);
+    }
+
+    @Override
+    public Optional<VerificationToken> findByUser(User user) {
+        if (user == null || user.getId() == null) return Optional.empty();
+        return Optional.ofNullable(tokensByUser.getIfPresent(user.getId()));
+    }
+
+    @Override
+    public VerificationToken add(VerificationToken token) throws ServiceError {
+        validate(token);
+
+        var userId = token.getUser().getId();
+        var added = tokensByUser.asMap().putIfAbsent(userId, token) == null;
+        if (!added) throw new ServiceError(ANOTHER_TOKEN_ALREADY_EXISTS);
+
+        token.setId(nextId.getAndIncrement());
+        userIdsByToken.put(token.getToken(), userId);
+        return token;
+    }
+
+    @Override
+    public VerificationToken replace(VerificationToken token) throws ServiceError {
+        validate(token);
+
+        var userId = token.getUser().getId();
+        token.setId(nextId.getAndIncrement());
+        // the removal listener unregisters the replaced token
+        tokensByUser.put(userId, token);
+        userIdsByToken.put(token.getToken(), userId);
+        return token;
+    }
+
+    @Override
+    public void removeByUser(User user) {
+        if (user == null || user.getId() == null) return;
+        tokensByUser.invalidate(user.getId());
+    }
+
+    @Override
+    public int purgeExpired(int batchSize) {
+        // expired tokens are evicted by the cache; this only performs pending maintenance
+        tokensByUser.cleanUp();
+        return 0;
+    }
+
+    private static void validate(VerificationToken token) throws ServiceError {
+        var violations = validator.validate(token);
+        if (!violations.isEmpty()) throw new ServiceError(MessageExtractor.extract(violations));
+        if (token.getUser().getId() == null) throw new ServiceError(NO_USER);
+    }
+
+    private static class TokenExpiry implements Expiry<Long, VerificationToken> {
+
+        @Override
+        public long expireAfterCreate(Long userId, VerificationToken token, long currentTime) {
+            var remainingMillis = token.getExpiryDate().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(Long userId, VerificationToken token, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(userId, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long userId, VerificationToken token, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,15 +1,26 @@
 package de.necon.clieman_backend.service;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import de.necon.clieman_backend.config.SecurityConstants;
 import de.necon.clieman_backend.exception.ServiceError;
 import de.necon.clieman_backend.model.User;
-import de.necon.clieman_backend.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.javatuples.Pair;
 import org.springframework.core.env.Environment;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
 import static de.necon.clieman_backend.config.ServiceErrorMessages.TOKEN_IS_NOT_VALID;
@@ -21,13 +32,51 @@ public class JWTTokenService {
     public static final String TOKEN_PREFIX = "Bearer ";
     public static final String HEADER_STRING = "Authorization";
 
-    private String secret;
-    private final UserRepository userRepository;
+    /**
+     * The maximum number of verified tokens that are remembered.
+     */
+    public static final int VERIFIED_TOKEN_CACHE_SIZE = 10_000;
+
+    /**
+     * Records the time needed to get the subject of a token, tagged with the result: 'cached' (the token has been
+     * verified before), 'verified' or 'invalid'.
+     */
+    public static final String VERIFICATION_TIMER = "clieman.jwt.verification";
+
+    private static final ThreadLocal<MessageDigest> digest = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
 
-    public JWTTokenService(UserRepository userRepository,
+    private String secret;
+    private Algorithm algorithm;
+    private JWTVerifier verifier;
+    private final UserCache userCache;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Maps the SHA-256 digest of already verified tokens to their subject and expiry date. Entries are removed
+     * as soon as the token expires.
+     */
+    private final Cache<String, VerifiedToken> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(VERIFIED_TOKEN_CACHE_SIZE)
+            .expireAfter(new VerifiedTokenExpiry())
+            .build();
+
+    public JWTTokenService(UserCache userCache,
             Environment env) {
-        this.userRepository = userRepository;
-        this.secret = SecurityConstants.getSecret(env);
+        this(userCache, env, Metrics.globalRegistry);
+    }
+
+    public JWTTokenService(UserCache userCache,
+                           Environment env,
+                           MeterRegistry meterRegistry) {
+        this.userCache = userCache;
+        this.meterRegistry = meterRegistry;
+        setSecret(SecurityConstants.getSecret(env));
     }
 
     public String createToken(User user) {
@@ -35,7 +84,7 @@ public class JWTTokenService {
         return JWT.create()
                 .withSubject(user.getEmail())
                 .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .sign(HMAC512(secret.getBytes()));
+                .sign(algorithm);
     }
 
     public static Pair<String, String> createTokenHeader(String token) {
@@ -44,28 +93,99 @@ public class JWTTokenService {
 
     public User getFromToken(String token) throws ServiceError {
 
-        String email = null;
+        String email = getSubjectFromToken(token);
+
+        var optionalUser = userCache.findByEmail(email);
 
+        if (optionalUser.isEmpty()) throw new ServiceError(USER_NOT_FOUND);
+        return optionalUser.get();
+    }
+
+    /**
+     * Verifies a token and provides its subject (the email of the user).
+     * Tokens that have been verified already are not verified again until they expire.
+     * @param token The token. Can be prefixed with TOKEN_PREFIX.
+     * @return The subject of the token.
+     * @throws ServiceError If the token is not valid or expired.
+     */
+    public String getSubjectFromToken(String token) throws ServiceError {
+
+        var sample = Timer.start(meterRegistry);
+        var result = "invalid";
         try {
-            email = JWT.require(Algorithm.HMAC512(secret.getBytes()))
-                    .build()
-                    .verify(token.replace(TOKEN_PREFIX, ""))
-                    .getSubject();
+            token = token.replace(TOKEN_PREFIX, "");
+            var key = digest(token);
+
+            var verifiedToken = verifiedTokens.getIfPresent(key);
+            if (verifiedToken != null && verifiedToken.expiresAt > System.currentTimeMillis()) {
+                result = "cached";
+                return verifiedToken.subject;
+            }
+
+            var decodedToken = verifier.verify(token);
+            var expiresAt = decodedToken.getExpiresAt();
+
+            // tokens without expiry date are not cached
+            if (expiresAt != null) {
+                verifiedTokens.put(key, new VerifiedToken(decodedToken.getSubject(), expiresAt.getTime()));
+            }
+
+            result = "verified";
+            return decodedToken.getSubject();
         } catch (com.auth0.jwt.exceptions.JWTVerificationException e) {
             throw new ServiceError(TOKEN_IS_NOT_VALID);
+        } finally {
+            sample.stop(meterRegistry.timer(VERIFICATION_TIMER, "result", result));
         }
-
-        var optionalUser = userRepository.findByEmail(email);
-
-        if (optionalUser.isEmpty()) throw new ServiceError(USER_NOT_FOUND);
-        return optionalUser.get();
     }
 
     public void setSecret(String secret) {
         this.secret = secret;
+        this.algorithm = HMAC512(secret.getBytes());
+        this.verifier = JWT.require(algorithm).build();
+
+        // tokens verified with the old secret mustn't be accepted anymore
+        verifiedTokens.invalidateAll();
     }
 
     public String getSecret() {
         return secret;
     }
+
+    private static String digest(String token) {
+        var hash = digest.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    private static class VerifiedToken {
+        private final String subject;
+        private final long expiresAt;
+
+        private VerifiedToken(String subject, long expiresAt) {
+            this.subject = subject;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Lets cached tokens expire at their expiry date.
+     */
+    private static class VerifiedTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            var remaining = value.expiresAt - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remaining, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package de.necon.clieman_backend.service;
+
+import de.necon.clieman_backend.exception.ServiceError;
+import de.necon.clieman_backend.model.User;
+import de.necon.clieman_backend.model.VerificationToken;
+import de.necon.clieman_backend.repository.VerificationTokenRepository;
+import de.necon.clieman_backend.util.MessageExtractor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.validation.ConstraintViolationException;
+import java.util.Date;
+import java.util.Optional;
+
+import static de.necon.clieman_backend.config.ServiceErrorMessages.ANOTHER_TOKEN_ALREADY_EXISTS;
+
+@Service
+@Transactional
+@ConditionalOnProperty(name = VerificationTokenStore.TYPE_PROPERTY, havingValue = "jpa", matchIfMissing = true)
+public class JpaVerificationTokenStore implements VerificationTokenStore {
+
+    private final VerificationTokenRepository tokenRepository;
+
+    public JpaVerificationTokenStore(VerificationTokenRepository tokenRepository) {
+        this.tokenRepository = tokenRepository;
+    }
+
+    @Override
+    public Optional<VerificationToken> findByToken(String token) {
+        return tokenRepository.findByToken(token);
+    }
+
+    @Override
+    public Optional<VerificationToken> findByUser(User user) {
+        return tokenRepository.findByUser(user);
+    }
+
+    @Override
+    public VerificationToken add(VerificationToken token) throws ServiceError {
+        try {
+            return tokenRepository.saveAndFlush(token);
+        } catch(ConstraintViolationException e) {
+            throw new ServiceError(MessageExtractor.extract(e));
+        } catch (DataIntegrityViolationException e) {
+            throw new ServiceError(ANOTHER_TOKEN_ALREADY_EXISTS);
+        }
+    }
+
+    @Override
+    public VerificationToken replace(VerificationToken token) throws ServiceError {
+
+        var optional = tokenRepository.findByUser(token.getUser());
+        if (optional.isEmpty()) return add(token);
+
+        // update the existing row instead of deleting it and inserting a new one
+        var storedToken = optional.get();
+        storedToken.setToken(token.getToken());
+        storedToken.setExpiryDate(token.getExpiryDate());
+
+        try {
+            return tokenRepository.saveAndFlush(storedToken);
+        } catch(ConstraintViolationException e) {
+            throw new ServiceError(MessageExtractor.extract(e));
+        }
+    }
+
+    @Override
+    public void removeByUser(User user) {
+        if (user == null || user.getId() == null) return;
+        tokenRepository.deleteByUserId(user.getId());
+    }
+
+    @Override
+    public int purgeExpired(int batchSize) {
+        return tokenRepository.deleteExpired(new Date(), batchSize);
+    }
+}
@@ -0,0 +1,36 @@
+package de.necon.clieman_backend.service;
+
+import de.necon.clieman_backend.exception.ServiceError;
+import de.necon.clieman_backend.model.ChangeSet;
+import de.necon.clieman_backend.model.User;
+
+/**
+ * Provides the changes of the clients and events of a user, so that devices only have to download what changed since
+ * their last sync.
+ */
+public interface SyncService {
+
+    /**
+     * Provides the clients and events of a user that were added, updated or deleted after a watermark.
+     * <p>
+     * The returned watermark lies a bit (clieman.sync.overlap-millis) before the time of the sync, so that changes of
+     * transactions that were still running are contained in the next change set. Items can therefore be returned by
+     * consecutive syncs; applying them again has no effect.
+     * <p>
+     * If no watermark is given or if the watermark is older than the retention period of the tombstones, all clients
+     * and events are returned and the change set is marked as full.
+     *
+     * @param user The user for who we want retrieve the changes.
+     * @param since The watermark of the previous sync or null.
+     * @return The changes. Is never null.
+     * @throws ServiceError If 'user' is null or if 'user' is not stored in the database.
+     */
+    ChangeSet getChanges(User user, Long since) throws ServiceError;
+
+    /**
+     * Deletes a batch of tombstones that are older than the retention period.
+     * @param batchSize The maximum number of tombstones to delete.
+     * @return The number of deleted tombstones.
+     */
+    int purgeTombstones(int batchSize);
+}
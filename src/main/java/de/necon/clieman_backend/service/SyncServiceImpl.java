@@ -0,0 +1,85 @@
+package de.necon.clieman_backend.service;
+
+import de.necon.clieman_backend.exception.ServiceError;
+import de.necon.clieman_backend.model.ChangeSet;
+import de.necon.clieman_backend.model.Tombstone;
+import de.necon.clieman_backend.model.User;
+import de.necon.clieman_backend.repository.TombstoneRepository;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.*;
+
+import static de.necon.clieman_backend.config.ServiceErrorMessages.NO_USER;
+
+@Service
+@Transactional
+public class SyncServiceImpl implements SyncService {
+
+    public static final String TOMBSTONE_RETENTION_PROPERTY = "clieman.sync.tombstone-retention-days";
+    public static final String OVERLAP_PROPERTY = "clieman.sync.overlap-millis";
+
+    private static final long DEFAULT_TOMBSTONE_RETENTION = 30;
+    private static final long DEFAULT_OVERLAP = 5000;
+
+    private final ClientService clientService;
+    private final EventService eventService;
+    private final TombstoneRepository tombstoneRepository;
+
+    private final Duration tombstoneRetention;
+    private final Duration overlap;
+
+    public SyncServiceImpl(ClientService clientService,
+                           EventService eventService,
+                           TombstoneRepository tombstoneRepository,
+                           Environment env) {
+        this.clientService = clientService;
+        this.eventService = eventService;
+        this.tombstoneRepository = tombstoneRepository;
+
+        tombstoneRetention = Duration.ofDays(env.getProperty(TOMBSTONE_RETENTION_PROPERTY, Long.class,
+                DEFAULT_TOMBSTONE_RETENTION));
+        overlap = Duration.ofMillis(env.getProperty(OVERLAP_PROPERTY, Long.class, DEFAULT_OVERLAP));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ChangeSet getChanges(User user, Long since) throws ServiceError {
+
+        if (user == null) throw new ServiceError(NO_USER);
+
+        // the watermark is taken before anything is read, so no change after it can be missed
+        var now = System.currentTimeMillis();
+        var watermark = now - overlap.toMillis();
+
+        if (since == null || since <= now - tombstoneRetention.toMillis()) {
+            // the tombstones of the deletions since the watermark might have been purged already
+            return new ChangeSet(clientService.getClientsOfUser(user), eventService.getEventViewsOfUser(user),
+                    List.of(), List.of(), watermark, true);
+        }
+
+        var sinceDate = new Date(since);
+        var clients = clientService.getClientsOfUserModifiedAfter(user, sinceDate);
+        var events = eventService.getEventViewsOfUserModifiedAfter(user, sinceDate);
+
+        // an item that was deleted and added again is returned as changed item only
+        var deletedClients = new LinkedHashSet<>(tombstoneRepository.findItemIdsDeletedAfter(user.getId(),
+                Tombstone.Type.CLIENT, sinceDate));
+        clients.forEach(c -> deletedClients.remove(c.getId().getId()));
+
+        var deletedEvents = new LinkedHashSet<>(tombstoneRepository.findItemIdsDeletedAfter(user.getId(),
+                Tombstone.Type.EVENT, sinceDate));
+        events.forEach(e -> deletedEvents.remove(e.getId()));
+
+        return new ChangeSet(clients, events, new ArrayList<>(deletedClients), new ArrayList<>(deletedEvents),
+                watermark, false);
+    }
+
+    @Override
+    public int purgeTombstones(int batchSize) {
+        var before = new Date(System.currentTimeMillis() - tombstoneRetention.toMillis());
+        return tombstoneRepository.deleteCreatedBefore(before, batchSize);
+    }
+}
@@ -0,0 +1,40 @@
+package de.necon.clieman_backend.service;
+
+import de.necon.clieman_backend.model.User;
+
+import java.util.Optional;
+
+/**
+ * A bounded in-memory cache for looking up users by their email or id. Users not found in the cache are loaded from
+ * the database. Entries expire after a configurable time, but have to be evicted explicitly if a user is changed.
+ * <p>
+ * The cache holds snapshots of the users. Returned users are detached copies, so callers are free to modify them.
+ */
+public interface UserCache {
+
+    /**
+     * Provides the user with the given email.
+     * @param email The email of the user.
+     * @return The user or an empty optional if no user with the given email exists.
+     */
+    Optional<User> findByEmail(String email);
+
+    /**
+     * Provides the user with the given id.
+     * @param id The id of the user.
+     * @return The user or an empty optional if no user with the given id exists.
+     */
+    Optional<User> findById(Long id);
+
+    /**
+     * Removes a user from the cache. If called within a transaction, the user is evicted again after the transaction
+     * has been committed, so that a concurrent lookup cannot cache the old state.
+     * @param user The user to evict. Both, its id and its email are evicted. Can be null.
+     */
+    void evict(User user);
+
+    /**
+     * Removes all users from the cache, e.g. after the users have been changed directly in the database.
+     */
+    void clear();
+}
@@ -0,0 +1,119 @@
+package de.necon.clieman_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.necon.clieman_backend.model.User;
+import de.necon.clieman_backend.repository.UserRepository;
+import org.apache.commons.lang3.BooleanUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Service
+public class UserCacheImpl implements UserCache {
+
+    public static final String ENABLED_PROPERTY = "clieman.user-cache.enabled";
+    public static final String TIME_TO_LIVE_PROPERTY = "clieman.user-cache.time-to-live-seconds";
+    public static final String MAXIMUM_SIZE_PROPERTY = "clieman.user-cache.maximum-size";
+
+    private static final long DEFAULT_TIME_TO_LIVE = 60;
+    private static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final Cache<String, User> usersByEmail;
+    private final Cache<Long, User> usersById;
+
+    public UserCacheImpl(UserRepository userRepository, Environment env) {
+        this.userRepository = userRepository;
+
+        var enabledProperty = env.getProperty(ENABLED_PROPERTY);
+        this.enabled = enabledProperty == null || BooleanUtils.toBoolean(enabledProperty);
+
+        var timeToLive = Duration.ofSeconds(env.getProperty(TIME_TO_LIVE_PROPERTY, Long.class, DEFAULT_TIME_TO_LIVE));
+        var maximumSize = env.getProperty(MAXIMUM_SIZE_PROPERTY, Long.class, DEFAULT_MAXIMUM_SIZE);
+
+        usersByEmail = Caffeine.newBuilder().expireAfterWrite(timeToLive).maximumSize(maximumSize).build();
+        usersById = Caffeine.newBuilder().expireAfterWrite(timeToLive).maximumSize(maximumSize).build();
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        if (email == null) return Optional.empty();
+        if (!enabled) return userRepository.findByEmail(email);
+
+        var user = usersByEmail.getIfPresent(email);
+        if (user == null) {
+            var optionalUser = userRepository.findByEmail(email);
+            if (optionalUser.isEmpty()) return optionalUser;
+            user = put(optionalUser.get());
+        }
+
+        return Optional.of(user.copy());
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        if (id == null) return Optional.empty();
+        if (!enabled) return userRepository.findById(id);
+
+        var user = usersById.getIfPresent(id);
+        if (user == null) {
+            var optionalUser = userRepository.findById(id);
+            if (optionalUser.isEmpty()) return optionalUser;
+            user = put(optionalUser.get());
+        }
+
+        return Optional.of(user.copy());
+    }
+
+    @Override
+    public void evict(User user) {
+        if (user == null || !enabled) return;
+
+        var id = user.getId();
+        var email = user.getEmail();
+        evict(id, email);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(id, email);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void clear() {
+        usersByEmail.invalidateAll();
+        usersById.invalidateAll();
+    }
+
+    private User put(User user) {
+        var snapshot = user.copy();
+        usersByEmail.put(snapshot.getEmail(), snapshot);
+        usersById.put(snapshot.getId(), snapshot);
+        return snapshot;
+    }
+
+    private void evict(Long id, String email) {
+        if (id != null) {
+            // the cached user might still be registered under an old email
+            var cached = usersById.getIfPresent(id);
+            if (cached != null) usersByEmail.invalidate(cached.getEmail());
+            usersById.invalidate(id);
+        }
+
+        if (email != null) {
+            var cached = usersByEmail.getIfPresent(email);
+            if (cached != null) usersById.invalidate(cached.getId());
+            usersByEmail.invalidate(email);
+        }
+    }
+}
@@ -76,6 +76,17 @@ public interface UserService {
      */
     VerificationToken createVerificationToken(User user, String token) throws ServiceError;
 
+    /**
+     * Creates a new verification token for a user and replaces an existing token of the user.
+     * @param user The user for creating the token.
+     * @param token The token which should be linked to the user.
+     * @return The created (and stored) verification token.
+     *
+     * @throws ServiceError: If the user is not stored in the database, the user is not disabled or the token
+     * is not a valid token.
+     */
+    VerificationToken renewVerificationToken(User user, String token) throws ServiceError;
+
     /**
      * Deletes any existing verification tokens of a user.
      * @param user The user to delete the verification tokens for.
@@ -5,14 +5,12 @@ import de.necon.clieman_backend.model.User;
 import de.necon.clieman_backend.model.VerificationToken;
 import de.necon.clieman_backend.repository.EventRepository;
 import de.necon.clieman_backend.repository.UserRepository;
-import de.necon.clieman_backend.repository.VerificationTokenRepository;
 import de.necon.clieman_backend.util.MessageExtractor;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
-import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -39,11 +37,14 @@ public class UserServiceImpl implements UserService {
     EventService eventService;
 
     @Autowired
-    private VerificationTokenRepository tokenRepository;
+    private VerificationTokenStore tokenStore;
 
     @Autowired
     PasswordEncoder encoder;
 
+    @Autowired
+    UserCache userCache;
+
     @Autowired
     Environment env;
 
@@ -51,14 +52,14 @@ public class UserServiceImpl implements UserService {
     public void deleteUser(User user) throws ServiceError {
 
         user = validateUser(user, true);
+        userCache.evict(user);
 
         try {
             //Note: we have to delete events first, clients are than automatically
             // deleted when deleting the user.
             var events = eventService.getEventsOfUser(user);
             eventRepository.deleteAll(events);
-            var optionalToken = tokenRepository.findByUser(user);
-            if (optionalToken.isPresent()) tokenRepository.delete(optionalToken.get());
+            tokenStore.removeByUser(user);
 
             userRepository.deleteById(user.getId());
             userRepository.flush();
@@ -110,10 +111,13 @@ public class UserServiceImpl implements UserService {
             throw new ServiceError(TOKEN_IS_EXPIRED);
         }
 
-        var user = getUserOfToken(verificationToken);
+        // the token might hold a stale copy of the user (e.g. if tokens are stored in memory)
+        var user = userRepository.findById(token.getUser().getId())
+                .orElseThrow(() -> new ServiceError(USER_NOT_FOUND));
+        userCache.evict(user);
         user.setEnabled(true);
 
-        tokenRepository.delete(token);
+        tokenStore.removeByUser(user);
         userRepository.saveAndFlush(user);
     }
 
@@ -158,6 +162,7 @@ public class UserServiceImpl implements UserService {
         }
 
         user.setId(oldUser.getId()); //we want to stay the internal id the same.
+        userCache.evict(oldUser);
         userRepository.delete(oldUser);
         userRepository.flush(); // necessary so that the following statement doesn't raise a constraint violation.
         userRepository.saveAndFlush(user);
@@ -166,34 +171,25 @@ public class UserServiceImpl implements UserService {
     @Override
     public VerificationToken createVerificationToken(User user, String token) throws ServiceError {
         var verificationToken = new VerificationToken(token, user);
+        checkUserIsDisabled(user);
+        return tokenStore.add(verificationToken);
+    }
 
-        user = getUserByPrincipal(user.getEmail());
-        if (user.isEnabled()) {
-            throw new ServiceError(USER_IS_NOT_DISABLED);
-        }
-
-        try {
-            return tokenRepository.saveAndFlush(verificationToken);
-        } catch(ConstraintViolationException e) {
-            throw new ServiceError(MessageExtractor.extract(e));
-        } catch (DataIntegrityViolationException e) {
-            throw new ServiceError(ANOTHER_TOKEN_ALREADY_EXISTS);
-        }
+    @Override
+    public VerificationToken renewVerificationToken(User user, String token) throws ServiceError {
+        var verificationToken = new VerificationToken(token, user);
+        checkUserIsDisabled(user);
+        return tokenStore.replace(verificationToken);
     }
 
     @Override
     public void deleteExistingVerificationToken(User user) {
-
-        var optionalToken = tokenRepository.findByUser(user);
-        if (optionalToken.isPresent()) {
-            tokenRepository.deleteById(optionalToken.get().getId());
-            tokenRepository.flush();
-        }
+        tokenStore.removeByUser(user);
     }
 
     @Override
     public VerificationToken getVerificationToken(String verificationToken) throws ServiceError {
-            var optional = tokenRepository.findByToken(verificationToken);
+            var optional = tokenStore.findByToken(verificationToken);
             if (!optional.isPresent()) {
                 logger.error("Couldn't find verification token with id: " + verificationToken);
                 throw new ServiceError(TOKEN_IS_NOT_VALID);
@@ -208,6 +204,7 @@ public class UserServiceImpl implements UserService {
 
         var optional = userRepository.findByEmail(email);
         if (optional.isPresent() && !user.getEmail().equals(email)) throw new ServiceError(EMAIL_ALREADY_EXISTS);
+        userCache.evict(user); // has to be done before the email is changed
         user.setEmail(email);
 
         try {
@@ -241,6 +238,7 @@ public class UserServiceImpl implements UserService {
         }
 
         newPassword = encoder.encode(newPassword);
+        userCache.evict(user);
         user.setPassword(newPassword);
         userRepository.saveAndFlush(user);
     }
@@ -256,6 +254,7 @@ public class UserServiceImpl implements UserService {
         if (userUsername != null && userUsername.equals(username)) return user;
 
         validateUsername(username);
+        userCache.evict(user);
         user.setUsername(username);
         return userRepository.saveAndFlush(user);
     }
@@ -303,4 +302,11 @@ public class UserServiceImpl implements UserService {
             throw new ServiceError(USERNAME_ALREADY_EXISTS);
         }
     }
-}
\ No newline at end of file
+
+    private void checkUserIsDisabled(User user) throws ServiceError {
+        user = getUserByPrincipal(user.getEmail());
+        if (user.isEnabled()) {
+            throw new ServiceError(USER_IS_NOT_DISABLED);
+        }
+    }
+}
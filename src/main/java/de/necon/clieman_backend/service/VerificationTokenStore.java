@@ -0,0 +1,62 @@
+package de.necon.clieman_backend.service;
+
+import de.necon.clieman_backend.exception.ServiceError;
+import de.necon.clieman_backend.model.User;
+import de.necon.clieman_backend.model.VerificationToken;
+
+import java.util.Optional;
+
+/**
+ * Stores the verification tokens of users. A user has at most one token.
+ * <p>
+ * The implementation is selected with the property 'clieman.verification-token-store.type': 'jpa' (default) stores
+ * the tokens in the database, 'memory' keeps them in memory and is only suitable for single node deployments.
+ */
+public interface VerificationTokenStore {
+
+    String TYPE_PROPERTY = "clieman.verification-token-store.type";
+
+    /**
+     * Searches a verification token by its textual representation. Expired tokens might be provided until they
+     * are purged.
+     * @param token The token to search.
+     * @return The found token.
+     */
+    Optional<VerificationToken> findByToken(String token);
+
+    /**
+     * Searches the verification token of a user.
+     * @param user The user linked with the desired verification token.
+     * @return The found token.
+     */
+    Optional<VerificationToken> findByUser(User user);
+
+    /**
+     * Stores a new verification token.
+     * @param token The token to store.
+     * @return The stored token.
+     * @throws ServiceError If the token isn't valid or the user already has a token.
+     */
+    VerificationToken add(VerificationToken token) throws ServiceError;
+
+    /**
+     * Stores a verification token and replaces an existing token of the user.
+     * @param token The token to store.
+     * @return The stored token.
+     * @throws ServiceError If the token isn't valid.
+     */
+    VerificationToken replace(VerificationToken token) throws ServiceError;
+
+    /**
+     * Removes the verification token of a user, if any.
+     * @param user The user whose token should be removed.
+     */
+    void removeByUser(User user);
+
+    /**
+     * Removes a batch of expired tokens.
+     * @param batchSize The maximum number of tokens to remove.
+     * @return The number of removed tokens.
+     */
+    int purgeExpired(int batchSize);
+}
@@ -0,0 +1,225 @@
+package de.necon.clieman_backend.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A data source that times the execution of all JDBC statements and reports statements, which take longer than a
+ * threshold, together with the types of their bind parameters and the calling service method
+ * (e.g. ClientServiceImpl.getClientsOfUser). The values of the bind parameters are not reported.
+ * <p>
+ * Note: Extends DelegatingDataSource, so that the wrapped connection pool can still be unwrapped (e.g. for its
+ * metrics).
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InstrumentedDataSource.class);
+
+    private static final String PACKAGE = "de.necon.clieman_backend.";
+
+    private final long thresholdNanos;
+
+    private final AtomicLong statementCount = new AtomicLong();
+    private final AtomicLong slowStatementCount = new AtomicLong();
+
+    /**
+     * @param target The data source to instrument.
+     * @param thresholdMillis Statements taking at least this long are reported as slow.
+     */
+    public InstrumentedDataSource(DataSource target, long thresholdMillis) {
+        super(target);
+        this.thresholdNanos = thresholdMillis * 1_000_000L;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    /**
+     * @return The number of executed statements (a JDBC batch counts once).
+     */
+    public long getStatementCount() {
+        return statementCount.get();
+    }
+
+    /**
+     * @return The number of statements, which took longer than the threshold.
+     */
+    public long getSlowStatementCount() {
+        return slowStatementCount.get();
+    }
+
+    /**
+     * Sets the statement counts to zero.
+     */
+    public void resetCounts() {
+        statementCount.set(0);
+        slowStatementCount.set(0);
+    }
+
+    /**
+     * Is called for every statement, which took longer than the threshold. Logs the statement.
+     * @param sql The statement.
+     * @param parameterTypes The types of the bind parameters ordered by their index ('null' for null values).
+     * @param caller The service method, which executed the statement, or the closest method of this application if
+     *               the statement wasn't executed by a service.
+     * @param millis The execution time.
+     */
+    protected void onSlowStatement(String sql, List<String> parameterTypes, String caller, long millis) {
+        LOG.warn("Slow statement ({} ms) in {}: {} parameters: {}", millis, caller, sql, parameterTypes);
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    /**
+     * @return e.g. 'EventServiceImpl.updateEvent'
+     */
+    private static String findCaller() {
+        return StackWalker.getInstance().walk(frames -> {
+            String closest = null;
+            for (var frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                var className = frame.getClassName();
+                // skips this class, its handlers and generated proxies
+                if (!className.startsWith(PACKAGE) || className.startsWith(InstrumentedDataSource.class.getName())
+                        || className.contains("$$")) {
+                    continue;
+                }
+
+                var simpleName = className.substring(className.lastIndexOf('.') + 1);
+                var method = simpleName + "." + frame.getMethodName();
+                if (simpleName.endsWith("ServiceImpl")) return method;
+                if (closest == null) closest = method;
+            }
+            return closest != null ? closest : "unknown";
+        });
+    }
+
+    /**
+     * Note: The proxies are compared by identity, the wrapped objects would consider them not equal to themselves.
+     */
+    private static boolean isIdentityMethod(Method method) {
+        return method.getDeclaringClass() == Object.class &&
+                (method.getName().equals("equals") || method.getName().equals("hashCode"));
+    }
+
+    private static Object invokeIdentityMethod(Object proxy, Method method, Object[] args) {
+        if (method.getName().equals("equals")) return proxy == args[0];
+        return System.identityHashCode(proxy);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) return invokeIdentityMethod(proxy, method, args);
+
+            var result = InstrumentedDataSource.invoke(connection, method, args);
+            if (!(result instanceof Statement)) return result;
+
+            // prepareStatement and prepareCall get the sql, createStatement doesn't
+            var sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+            return Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(),
+                    collectStatementInterfaces(result), new StatementHandler((Statement) result, sql));
+        }
+
+        private Class<?>[] collectStatementInterfaces(Object statement) {
+            if (statement instanceof CallableStatement) {
+                return new Class<?>[]{CallableStatement.class};
+            }
+            if (statement instanceof PreparedStatement) {
+                return new Class<?>[]{PreparedStatement.class};
+            }
+            return new Class<?>[]{Statement.class};
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final String sql;
+
+        /**
+         * The types of the bind parameters by their index.
+         */
+        private final TreeMap<Integer, String> parameterTypes = new TreeMap<>();
+
+        StatementHandler(Statement statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) return invokeIdentityMethod(proxy, method, args);
+
+            var name = method.getName();
+
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parameterTypes.put((Integer) args[0], name.equals("setNull") || args[1] == null ? "null" :
+                        args[1].getClass().getSimpleName());
+            } else if (name.equals("clearParameters")) {
+                parameterTypes.clear();
+            } else if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+
+            return InstrumentedDataSource.invoke(statement, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            var start = System.nanoTime();
+            try {
+                return InstrumentedDataSource.invoke(statement, method, args);
+            } finally {
+                var elapsed = System.nanoTime() - start;
+                statementCount.incrementAndGet();
+                if (elapsed >= thresholdNanos) {
+                    slowStatementCount.incrementAndGet();
+                    // plain statements get their sql with the execute call
+                    var executedSql = sql == null && args != null && args.length > 0 && args[0] instanceof String ?
+                            (String) args[0] : sql;
+                    onSlowStatement(executedSql, List.copyOf(parameterTypes.values()), findCaller(),
+                            elapsed / 1_000_000L);
+                }
+            }
+        }
+    }
+}
@@ -2,8 +2,10 @@ package de.necon.clieman_backend.util;
 
 import org.springframework.dao.DataIntegrityViolationException;
 
+import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -12,7 +14,11 @@ import java.util.stream.Collectors;
 public class MessageExtractor {
 
     public static List<String> extract(ConstraintViolationException e) {
-        return e.getConstraintViolations().stream().
+        return extract(e.getConstraintViolations());
+    }
+
+    public static List<String> extract(Set<? extends ConstraintViolation<?>> violations) {
+        return violations.stream().
                 map(v -> v.getMessageTemplate()).
                 collect(Collectors.toUnmodifiableList());
     }
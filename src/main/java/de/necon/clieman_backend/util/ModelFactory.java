@@ -67,6 +67,24 @@ public final class ModelFactory {
         return events;
     }
 
+    /**
+     * Creates events, that don't share their clients (other than the events created by createEvents).
+     * @param eventCount The number of events to create.
+     * @param clientCount The number of clients of each event.
+     */
+    public List<Event> createEventsWithOwnClients(int eventCount, int clientCount, User user, boolean store) {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < eventCount; ++i) {
+            List<Client> clients = new ArrayList<>();
+            for (int j = 0; j < clientCount; ++j) {
+                clients.add(createClient("event" + i + "-test" + j + "@email.com", user, store));
+            }
+            events.add(createEvent("event" + i, user, clients, store));
+        }
+
+        return events;
+    }
+
     public List<Client> createClients(int count, User user, boolean store) {
         List<Client> clients = new ArrayList<>();
         for (int i = 0; i < count; ++i) {
@@ -78,7 +96,16 @@ public final class ModelFactory {
     public Client createClient(String id, User user, boolean store) {
         Client client = new Client(null, null, null, null,
                 id, null,null, null, null, user);
-        if (store) client = clientRepository.saveAndFlush(client);
+        if (store) {
+            // the events created by createEvents share their clients. An already stored client keeps its version
+            // and modification time.
+            var stored = clientRepository.findById(client.getId());
+            if (stored.isPresent()) {
+                client.setVersion(stored.get().getVersion());
+                client.setLastModified(stored.get().getLastModified());
+            }
+            client = clientRepository.saveAndFlush(client);
+        }
         return client;
     }
 
@@ -92,7 +119,15 @@ public final class ModelFactory {
 
     public Event createEvent(String id, User user, List<Client> clients, boolean store) {
         Event event = createEvent(id, user, clients);
-        if (store) event = eventRepository.saveAndFlush(event);
+        if (store) {
+            // an already stored event keeps its version and modification time.
+            var stored = eventRepository.findById(event.getId());
+            if (stored.isPresent()) {
+                event.setVersion(stored.get().getVersion());
+                event.setLastModified(stored.get().getLastModified());
+            }
+            event = eventRepository.saveAndFlush(event);
+        }
         return event;
     }
 
@@ -0,0 +1,34 @@
+package de.necon.clieman_backend.util;
+
+import de.necon.clieman_backend.exception.ServiceError;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static de.necon.clieman_backend.config.ServiceErrorMessages.INVALID_CURSOR;
+
+/**
+ * Utility for converting the id of the last item of a page into an opaque cursor and back.
+ */
+public class PageCursor {
+
+    public static String encode(String id) {
+        if (id == null) return null;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously created by {@link #encode(String)}.
+     * @param cursor The cursor. Can be null.
+     * @return The decoded id or null, if the cursor is null.
+     * @throws ServiceError If the cursor is malformed.
+     */
+    public static String decode(String cursor) throws ServiceError {
+        if (cursor == null) return null;
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ServiceError(INVALID_CURSOR, e);
+        }
+    }
+}
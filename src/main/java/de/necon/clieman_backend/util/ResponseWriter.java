@@ -1,11 +1,16 @@
 package de.necon.clieman_backend.util;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import de.necon.clieman_backend.network.ErrorListDto;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Utility for writing responses to a http request.
@@ -14,8 +19,14 @@ public class ResponseWriter {
 
     private final ObjectMapper objectMapper;
 
+    /**
+     * Used for writing the items of a streamed JSON array. Flushing is left to the generator's buffer.
+     */
+    private final ObjectWriter itemWriter;
+
     public ResponseWriter(ObjectMapper objectMapper) {
         this.objectMapper = objectMapper;
+        this.itemWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
 
@@ -25,6 +36,40 @@ public class ResponseWriter {
         objectMapper.writeValue(response.getWriter(), object);
     }
 
+    /**
+     * Writes the items of a producer as a JSON array and sets the http status to OK (200).
+     * Each item is serialized as soon as it is produced, so the items don't have to be held in memory.
+     * <p>
+     * If the producer throws an exception before the output buffer was flushed for the first time, nothing is
+     * written to the response, so that the exception can still be handled by the usual exception handlers.
+     * @param producer Passes the items to write to the given consumer.
+     * @param response The http servlet response used for writing.
+     * @throws IOException If an unexpected io error occurs.
+     */
+    public <T> void writeOkStream(Consumer<Consumer<T>> producer, final HttpServletResponse response)
+            throws IOException {
+        response.addHeader("Content-type", "application/json");
+        response.setStatus(HttpServletResponse.SC_OK);
+
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+        generator.writeStartArray();
+
+        try {
+            producer.accept(item -> {
+                try {
+                    itemWriter.writeValue(generator, item);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        generator.writeEndArray();
+        generator.close();
+    }
+
     /**
      * Writes an object as an JSON object and sets the http status to BAD REQUEST (400)
      * @param object The response, that will be written in JSON format.
@@ -0,0 +1,5 @@
+-- Users and verification tokens allocate their ids in blocks of ${id_allocation_size} (pooled-lo).
+-- The next value of a sequence is the old last value plus the new increment, so already used ids are never handed
+-- out again. On a fresh database the sequences don't exist yet and are created by hibernate with the right increment.
+ALTER SEQUENCE IF EXISTS seq_tb_user INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE IF EXISTS seq_verificationtoken INCREMENT BY ${id_allocation_size};
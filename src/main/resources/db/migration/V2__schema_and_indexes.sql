@@ -0,0 +1,99 @@
+-- Declares the complete schema, including all indexes of the hot lookups. Hibernate only validates the schema from
+-- now on. Databases that were created by hibernate's schema update keep their tables; only the missing indexes and
+-- tables are added.
+
+CREATE SEQUENCE IF NOT EXISTS seq_tb_user START WITH 1 INCREMENT BY ${id_allocation_size};
+CREATE SEQUENCE IF NOT EXISTS seq_verificationtoken START WITH 1 INCREMENT BY ${id_allocation_size};
+CREATE SEQUENCE IF NOT EXISTS seq_outbox_email START WITH 1 INCREMENT BY ${id_allocation_size};
+
+CREATE TABLE IF NOT EXISTS tb_user (
+    id BIGINT NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    enabled BOOLEAN DEFAULT FALSE,
+    password VARCHAR(100) NOT NULL,
+    username VARCHAR(100),
+    PRIMARY KEY (id),
+    -- the unique constraints provide the indexes of UserRepository.findByEmail and findByUsername
+    CONSTRAINT uk_tb_user_email UNIQUE (email),
+    CONSTRAINT uk_tb_user_username UNIQUE (username),
+    CONSTRAINT uk_tb_user_email_username UNIQUE (email, username)
+);
+
+CREATE TABLE IF NOT EXISTS verification_token (
+    id BIGINT NOT NULL,
+    expiry_date TIMESTAMP NOT NULL,
+    token VARCHAR(255) NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_verification_token_user UNIQUE (user_id),
+    CONSTRAINT fk_verification_token_user FOREIGN KEY (user_id) REFERENCES tb_user
+);
+
+CREATE TABLE IF NOT EXISTS client (
+    id_embedded VARCHAR(255) NOT NULL,
+    address VARCHAR(255),
+    birthday TIMESTAMP,
+    email VARCHAR(255),
+    forename VARCHAR(255),
+    mobile VARCHAR(255),
+    name VARCHAR(255),
+    sex VARCHAR(255),
+    title VARCHAR(255),
+    user_id_embedded BIGINT NOT NULL,
+    PRIMARY KEY (id_embedded, user_id_embedded),
+    CONSTRAINT fk_client_user FOREIGN KEY (user_id_embedded) REFERENCES tb_user ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS event (
+    id_embedded VARCHAR(255) NOT NULL,
+    color VARCHAR(255),
+    details VARCHAR(255),
+    end_date TIMESTAMP,
+    name VARCHAR(255),
+    start_date TIMESTAMP,
+    user_id_embedded BIGINT NOT NULL,
+    PRIMARY KEY (id_embedded, user_id_embedded),
+    CONSTRAINT fk_event_user FOREIGN KEY (user_id_embedded) REFERENCES tb_user ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS event_clients (
+    event_id VARCHAR(255) NOT NULL,
+    event_user BIGINT NOT NULL,
+    client_id VARCHAR(255) NOT NULL,
+    client_user BIGINT NOT NULL,
+    CONSTRAINT fk_event_clients_event FOREIGN KEY (event_id, event_user) REFERENCES event,
+    CONSTRAINT fk_event_clients_client FOREIGN KEY (client_id, client_user) REFERENCES client
+);
+
+CREATE TABLE IF NOT EXISTS outbox_email (
+    id BIGINT NOT NULL,
+    attempts INTEGER NOT NULL,
+    last_error VARCHAR(1024),
+    next_attempt_at TIMESTAMP NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255),
+    text VARCHAR(4096),
+    PRIMARY KEY (id)
+);
+
+-- ClientRepository.findAllByUser and the keyset pagination of the clients
+CREATE INDEX IF NOT EXISTS idx_client_user_id ON client (user_id_embedded, id_embedded);
+
+-- EventRepository.findAllByUser and the keyset pagination of the events
+CREATE INDEX IF NOT EXISTS idx_event_user_id ON event (user_id_embedded, id_embedded);
+
+-- EventRepository.findAllViewsByUserInRange
+CREATE INDEX IF NOT EXISTS idx_event_user_start_end ON event (user_id_embedded, start_date, end_date);
+
+-- the client ids of the events of a user
+CREATE INDEX IF NOT EXISTS idx_event_clients_event ON event_clients (event_user, event_id);
+
+-- EventRepository.findAllByClient
+CREATE INDEX IF NOT EXISTS idx_event_clients_client ON event_clients (client_user, client_id);
+
+-- VerificationTokenRepository.findByToken and the purge of expired tokens
+CREATE INDEX IF NOT EXISTS idx_verification_token_token ON verification_token (token);
+CREATE INDEX IF NOT EXISTS idx_verification_token_expiry_date ON verification_token (expiry_date);
+
+-- the due emails of the outbox
+CREATE INDEX IF NOT EXISTS idx_outbox_email_next_attempt ON outbox_email (next_attempt_at);
@@ -0,0 +1,28 @@
+-- Adds the version and modification time of clients and events and the tombstones of deleted items, which are
+-- needed by the delta sync (see SyncService). Existing items count as modified at the time of the migration.
+
+ALTER TABLE client ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE client ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL;
+
+ALTER TABLE event ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE event ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL;
+
+CREATE SEQUENCE IF NOT EXISTS seq_tombstone START WITH 1 INCREMENT BY ${id_allocation_size};
+
+CREATE TABLE IF NOT EXISTS tombstone (
+    id BIGINT NOT NULL,
+    deleted_at TIMESTAMP NOT NULL,
+    item_id VARCHAR(255) NOT NULL,
+    type VARCHAR(16) NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_tombstone_user FOREIGN KEY (user_id) REFERENCES tb_user ON DELETE CASCADE
+);
+
+-- ClientRepository.findAllByUserModifiedAfter and EventRepository.findViewsByUserModifiedAfter
+CREATE INDEX IF NOT EXISTS idx_client_user_modified ON client (user_id_embedded, last_modified);
+CREATE INDEX IF NOT EXISTS idx_event_user_modified ON event (user_id_embedded, last_modified);
+
+-- TombstoneRepository.findItemIdsDeletedAfter and the purge of old tombstones
+CREATE INDEX IF NOT EXISTS idx_tombstone_user_deleted ON tombstone (user_id, deleted_at);
+CREATE INDEX IF NOT EXISTS idx_tombstone_deleted ON tombstone (deleted_at);
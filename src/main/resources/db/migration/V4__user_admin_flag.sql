@@ -0,0 +1,4 @@
+-- Marks the users who may access the /admin endpoints. The flag can't be changed through the API, an operator sets it:
+-- UPDATE tb_user SET admin = TRUE WHERE id = <id of the user>;
+
+ALTER TABLE tb_user ADD COLUMN IF NOT EXISTS admin BOOLEAN DEFAULT FALSE NOT NULL;
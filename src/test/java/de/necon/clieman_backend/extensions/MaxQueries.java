@@ -0,0 +1,22 @@
+package de.necon.clieman_backend.extensions;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits the number of SQL statements each MockMvc request of a test may issue. The statements issued outside of
+ * requests (e.g. for creating the test data) don't count.
+ * A test exceeding the budget fails; requires the QueryBudgetTestExecutionListener.
+ * Can be put on a test class for all of its tests; an annotation on the test method takes precedence.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MaxQueries {
+
+    /**
+     * The maximum number of statements per request.
+     */
+    int value();
+}
@@ -0,0 +1,107 @@
+package de.necon.clieman_backend.extensions;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.javatuples.Pair;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the SQL statements prepared by hibernate on the current thread.
+ * Is registered as statement inspector in the test application properties.
+ * <p>
+ * While requests are recorded (see startRecordingRequests), the statements are additionally counted per request.
+ * A statement belongs to the request, which MockMvc is performing on the current thread.
+ * <p>
+ * While statements are captured (see startCapturingStatements), their SQL is collected, e.g. for explaining it.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final String REQUEST_COUNT_ATTRIBUTE = SqlStatementCounter.class.getName() + ".count";
+
+    private static final ThreadLocal<Integer> count = ThreadLocal.withInitial(() -> 0);
+
+    /**
+     * The requests that issued at least one statement since the recording was started or null, if requests aren't
+     * recorded.
+     */
+    private static final ThreadLocal<List<HttpServletRequest>> requests = new ThreadLocal<>();
+
+    /**
+     * The SQL of the statements prepared since the capturing was started or null, if statements aren't captured.
+     */
+    private static final ThreadLocal<List<String>> statements = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        count.set(count.get() + 1);
+
+        var recordedRequests = requests.get();
+        if (recordedRequests != null) countForRequest(recordedRequests);
+
+        var capturedStatements = statements.get();
+        if (capturedStatements != null) capturedStatements.add(sql);
+
+        return sql;
+    }
+
+    public static void reset() {
+        count.set(0);
+    }
+
+    public static int getCount() {
+        return count.get();
+    }
+
+    public static void startRecordingRequests() {
+        requests.set(new ArrayList<>());
+    }
+
+    /**
+     * Stops recording requests.
+     * @return The requests ('METHOD uri') that issued statements since the recording was started, with their number
+     * of statements in the order of the requests.
+     */
+    public static List<Pair<String, Integer>> stopRecordingRequests() {
+        var recordedRequests = requests.get();
+        requests.remove();
+        if (recordedRequests == null) return List.of();
+
+        return recordedRequests.stream()
+                .map(r -> new Pair<>(r.getMethod() + " " + r.getRequestURI(),
+                        (Integer) r.getAttribute(REQUEST_COUNT_ATTRIBUTE)))
+                .collect(Collectors.toList());
+    }
+
+    public static void startCapturingStatements() {
+        statements.set(new ArrayList<>());
+    }
+
+    /**
+     * Stops capturing statements.
+     * @return The SQL of the statements prepared since the capturing was started in the order of their preparation.
+     */
+    public static List<String> stopCapturingStatements() {
+        var capturedStatements = statements.get();
+        statements.remove();
+        return capturedStatements != null ? capturedStatements : List.of();
+    }
+
+    private static void countForRequest(List<HttpServletRequest> recordedRequests) {
+        // Note: MockMvc binds the performed request to the thread
+        var attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) return;
+
+        var request = ((ServletRequestAttributes) attributes).getRequest();
+        var requestCount = (Integer) request.getAttribute(REQUEST_COUNT_ATTRIBUTE);
+        if (requestCount == null) {
+            requestCount = 0;
+            recordedRequests.add(request);
+        }
+        request.setAttribute(REQUEST_COUNT_ATTRIBUTE, requestCount + 1);
+    }
+}
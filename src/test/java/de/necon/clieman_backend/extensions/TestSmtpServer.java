@@ -29,4 +29,13 @@ public class TestSmtpServer {
     public MimeMessage[] getMessages() {
         return smtpServer.getReceivedMessages();
     }
-}
\ No newline at end of file
+
+    /**
+     * Waits until the given number of emails has been received. Is needed since emails are sent asynchronously.
+     * @return The received emails.
+     */
+    public MimeMessage[] waitForMessages(int count) {
+        smtpServer.waitForIncomingEmail(5000, count);
+        return getMessages();
+    }
+}
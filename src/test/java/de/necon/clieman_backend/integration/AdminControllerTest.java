@@ -0,0 +1,150 @@
+package de.necon.clieman_backend.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.necon.clieman_backend.listeners.ResetDatabaseTestExecutionListener;
+import de.necon.clieman_backend.model.User;
+import de.necon.clieman_backend.network.EmailDto;
+import de.necon.clieman_backend.network.DatabaseStatisticsDto;
+import de.necon.clieman_backend.repository.ClientRepository;
+import de.necon.clieman_backend.repository.EventRepository;
+import de.necon.clieman_backend.repository.UserRepository;
+import de.necon.clieman_backend.service.JWTTokenService;
+import de.necon.clieman_backend.util.ModelFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestExecutionListeners;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@ActiveProfiles("test")
+@TestExecutionListeners(mergeMode =
+        TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS,
+        listeners = {ResetDatabaseTestExecutionListener.class}
+)
+// only this test runs with the instrumented data source and hibernate statistics
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "clieman.db-instrumentation.enabled=true",
+        "clieman.db-instrumentation.slow-statement-threshold-millis=10000"
+})
+@AutoConfigureMockMvc
+@Transactional
+public class AdminControllerTest {
+
+    private static final String ADMIN_EMAIL = "admin@email.com";
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    JWTTokenService tokenService;
+
+    @Autowired
+    ObjectMapper mapper;
+
+    @Autowired
+    ModelFactory modelFactory;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @TestConfiguration
+    public static class Config {
+        @Bean
+        ModelFactory modelFactory(@Autowired UserRepository userRepository,
+                                  @Autowired ClientRepository clientRepository,
+                                  @Autowired EventRepository eventRepository) {
+            return new ModelFactory(userRepository, clientRepository, eventRepository);
+
+        }
+    }
+
+    @Test
+    public void dbStats_notAuthenticated() throws Exception {
+        var response = mvc.perform(get("/admin/db-stats").secure(true)).andReturn().getResponse();
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), response.getStatus());
+    }
+
+    @Test
+    public void dbStats_noAdmin_forbidden() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        var response = perform(get("/admin/db-stats"), tokenService.createToken(user));
+        assertEquals(HttpStatus.FORBIDDEN.value(), response.getStatus());
+    }
+
+    @Test
+    public void dbStats_emailChangedToAdminEmail_forbidden() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+
+        var writer = new StringWriter();
+        mapper.writeValue(writer, new EmailDto(ADMIN_EMAIL));
+        var response = perform(post("/user/changeEmail")
+                .contentType("application/json")
+                .content(writer.toString()), tokenService.createToken(user));
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+
+        // the token for the changed email
+        var token = response.getHeader(JWTTokenService.HEADER_STRING)
+                .substring(JWTTokenService.TOKEN_PREFIX.length());
+        response = perform(get("/admin/db-stats"), token);
+        assertEquals(HttpStatus.FORBIDDEN.value(), response.getStatus());
+    }
+
+    @Test
+    public void dbStats_admin_statisticsAreReturned() throws Exception {
+        var admin = createAdmin();
+        var token = tokenService.createToken(admin);
+        modelFactory.createClients(3, admin, true);
+        // the clients have to be loaded from the database
+        entityManager.clear();
+
+        assertEquals(HttpStatus.OK.value(), perform(post("/admin/db-stats/reset"), token).getStatus());
+        assertEquals(HttpStatus.OK.value(), perform(get("/clients/getAll"), token).getStatus());
+
+        var response = perform(get("/admin/db-stats"), token);
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+
+        var statistics = mapper.readValue(response.getContentAsString(), DatabaseStatisticsDto.class);
+        assertTrue(statistics.isEnabled());
+        assertTrue(statistics.getStatementCount() > 0);
+        assertEquals(0, statistics.getSlowStatementCount());
+        assertTrue(statistics.getPrepareStatementCount() > 0);
+        assertTrue(statistics.getEntityLoadCount() >= 3);
+        assertTrue(statistics.getQueries().stream().anyMatch(q -> q.getQuery().contains("Client")));
+        // there is no second level cache
+        assertNull(statistics.getSecondLevelCacheHitRatio());
+    }
+
+    private User createAdmin() {
+        var admin = modelFactory.createUser(ADMIN_EMAIL, true, false);
+        admin.setAdmin(true);
+        return userRepository.saveAndFlush(admin);
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequestBuilder request, String token) throws Exception {
+        var header = JWTTokenService.createTokenHeader(token);
+        return mvc.perform(request
+                .header(header.getValue0(), header.getValue1())
+                .secure(true))
+                .andReturn()
+                .getResponse();
+    }
+}
@@ -2,11 +2,18 @@ package de.necon.clieman_backend.integration;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import de.necon.clieman_backend.extensions.MaxQueries;
+import de.necon.clieman_backend.listeners.QueryBudgetTestExecutionListener;
 import de.necon.clieman_backend.listeners.ResetDatabaseTestExecutionListener;
+import de.necon.clieman_backend.model.BatchOperation;
 import de.necon.clieman_backend.model.Client;
 import de.necon.clieman_backend.model.Sex;
 import de.necon.clieman_backend.model.User;
+import de.necon.clieman_backend.network.BatchOperationDto;
+import de.necon.clieman_backend.network.BatchResultDto;
 import de.necon.clieman_backend.network.ErrorListDto;
+import de.necon.clieman_backend.network.PageDto;
 import de.necon.clieman_backend.repository.ClientRepository;
 import de.necon.clieman_backend.repository.EventRepository;
 import de.necon.clieman_backend.repository.UserRepository;
@@ -27,11 +34,15 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 
+import static de.necon.clieman_backend.config.RepositoryConfig.MAX_BATCH_SIZE;
 import static de.necon.clieman_backend.config.ServiceErrorMessages.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -39,7 +50,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 @ActiveProfiles("test")
 @TestExecutionListeners(mergeMode =
         TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS,
-        listeners = {ResetDatabaseTestExecutionListener.class}
+        listeners = {ResetDatabaseTestExecutionListener.class, QueryBudgetTestExecutionListener.class}
 )
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureMockMvc
@@ -84,6 +95,7 @@ public class ClientControllerTest {
     }
 
     @Test
+    @MaxQueries(5)
     public void getClients_authenticated() throws Exception {
         var enabledUser = new User("test@email.com",
                 "password", "test", true);
@@ -119,6 +131,105 @@ public class ClientControllerTest {
     }
 
     @Test
+    @MaxQueries(5)
+    public void getClients_matchingETag_notModified() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        modelFactory.createClients(2, user, true);
+        var token = tokenService.createToken(user);
+
+        var response = getClients(token);
+        var etag = response.getHeader("ETag");
+        assertNotNull(etag);
+
+        response = getClients(token, etag);
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+        assertEquals("", response.getContentAsString());
+    }
+
+    @Test
+    public void getClients_changedClients_newETag() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        var clients = modelFactory.createClients(2, user, true);
+        var token = tokenService.createToken(user);
+        var etags = new HashSet<String>();
+        etags.add(getClients(token).getHeader("ETag"));
+
+        var update = clients.get(0).copyShallow();
+        update.setName("name");
+        updateClient(update, token);
+        etags.add(getClients(token).getHeader("ETag"));
+
+        removeClient(clients.get(1), token);
+        etags.add(getClients(token).getHeader("ETag"));
+
+        addClient(clients.get(1).copyShallow(), token);
+        var response = getClients(token, etags.iterator().next());
+        etags.add(response.getHeader("ETag"));
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals(4, etags.size());
+    }
+
+    @Test
+    @MaxQueries(5)
+    public void streamClients_sameClientsAsGetAll() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        modelFactory.createClients(5, user, true);
+
+        var response = streamClients(tokenService.createToken(user));
+        assertTrue(response.getStatus() == HttpStatus.OK.value());
+        var streamed = mapper.readValue(response.getContentAsString(), new TypeReference<List<Client>>(){});
+
+        response = getClients(tokenService.createToken(user));
+        var all = mapper.readValue(response.getContentAsString(), new TypeReference<List<Client>>(){});
+
+        assertEquals(5, streamed.size());
+        assertTrue(streamed.containsAll(all));
+    }
+
+    @Test
+    public void streamClients_notAuthenticated() throws Exception {
+        var response = streamClients(null);
+        assertTrue(response.getStatus() == HttpStatus.UNAUTHORIZED.value());
+    }
+
+    @Test
+    @MaxQueries(3)
+    public void getClientPage_allClientsAreVisitedOnce() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        var clients = modelFactory.createClients(5, user, true);
+
+        List<Client> visited = new ArrayList<>();
+        String cursor = null;
+        do {
+            var response = getClientPage(tokenService.createToken(user), cursor, 2);
+            assertTrue(response.getStatus() == HttpStatus.OK.value());
+
+            PageDto<Client> page = mapper.readValue(response.getContentAsString(),
+                    new TypeReference<PageDto<Client>>(){});
+            assertTrue(page.getItems().size() <= 2);
+            page.getItems().forEach(c -> c.getId().setUser(user));
+            visited.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(clients.size(), visited.size());
+        assertTrue(visited.containsAll(clients));
+    }
+
+    @Test
+    public void getClientPage_invalid_malformedCursor() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+
+        var response = getClientPage(tokenService.createToken(user), "not a cursor!", 2);
+        assertTrue(response.getStatus() == HttpStatus.BAD_REQUEST.value());
+
+        var errorList = mapper.readValue(response.getContentAsString(), ErrorListDto.class);
+        assertEquals(INVALID_CURSOR, errorList.getErrors().get(0));
+    }
+
+    @Test
+    @MaxQueries(4)
     public void addClient_valid() throws Exception {
         var user = new User("test@email.com",
                 "password", "test", true);
@@ -136,6 +247,30 @@ public class ClientControllerTest {
         assertEquals(client, deserialized);
     }
 
+    @Test
+    public void addClient_smile() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        var client = modelFactory.createClient("client1", user, false);
+        client.setName("name");
+        var smileMapper = new ObjectMapper(new SmileFactory());
+
+        var header = JWTTokenService.createTokenHeader(tokenService.createToken(user));
+        var response = mvc.perform(post("/clients/add")
+                .header(header.getValue0(), header.getValue1())
+                .secure(true)
+                .contentType("application/x-jackson-smile")
+                .accept("application/x-jackson-smile")
+                .content(smileMapper.writeValueAsBytes(client)))
+                .andReturn()
+                .getResponse();
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals("application/x-jackson-smile", response.getContentType());
+        var returned = smileMapper.readValue(response.getContentAsByteArray(), Client.class);
+        returned.setUser(user);
+        assertEquals(client, returned);
+    }
+
     @Test
     public void addClient_addingTwiceNotAllowed() throws Exception {
         var user = new User("test@email.com",
@@ -153,6 +288,7 @@ public class ClientControllerTest {
     }
 
     @Test
+    @MaxQueries(4)
     public void removeClient_removedClientIsNotStoredAnymore() throws Exception {
         var user = new User("test@email.com",
                 "password", "test", true);
@@ -181,6 +317,7 @@ public class ClientControllerTest {
     }
 
     @Test
+    @MaxQueries(2)
     public void updateClient_valid() throws Exception {
         var user = new User("test@email.com",
                 "password", "test", true);
@@ -265,15 +402,94 @@ public class ClientControllerTest {
     }
 
 
+    @Test
+    @MaxQueries(5)
+    public void batchClients_resultsPerOperation() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        var client1 = modelFactory.createClient("client1", user, true);
+        var client2 = modelFactory.createClient("client2", user, true);
+        modelFactory.createEvent("event", user, List.of(client2), true);
+
+        var updated = modelFactory.createClient("client1", user, false);
+        updated.setName("newName");
+
+        var response = batchClients(List.of(
+                new BatchOperationDto<>(BatchOperation.ADD, modelFactory.createClient("client3", user, false)),
+                new BatchOperationDto<>(BatchOperation.ADD, client1),
+                new BatchOperationDto<>(BatchOperation.UPDATE, updated),
+                new BatchOperationDto<>(BatchOperation.REMOVE, client2),
+                new BatchOperationDto<>(BatchOperation.REMOVE, modelFactory.createClient("unknown", user, false))
+        ), tokenService.createToken(user));
+        assertTrue(response.getStatus() == HttpStatus.OK.value());
+
+        List<BatchResultDto> results = mapper.readValue(response.getContentAsString(),
+                new TypeReference<List<BatchResultDto>>(){});
+        assertEquals(5, results.size());
+        assertEquals("client3", results.get(0).getId());
+        assertTrue(results.get(0).getErrors().isEmpty());
+        assertEquals(List.of(CLIENT_ALREADY_EXISTS), results.get(1).getErrors());
+        assertTrue(results.get(2).getErrors().isEmpty());
+        assertEquals(List.of(CLIENT_CANNOT_BE_DELETED), results.get(3).getErrors());
+        assertEquals(List.of(CLIENT_NOT_FOUND), results.get(4).getErrors());
+
+        var clients = clientService.getClientsOfUser(user);
+        assertEquals(3, clients.size());
+        assertTrue(clients.stream().anyMatch(c -> c.getId().getId().equals("client1")
+                && "newName".equals(c.getName())));
+    }
+
+    @Test
+    public void batchClients_invalid_tooManyOperations() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+
+        List<BatchOperationDto<Client>> operations = new ArrayList<>();
+        for (int i = 0; i <= MAX_BATCH_SIZE; ++i) {
+            operations.add(new BatchOperationDto<>(BatchOperation.ADD, modelFactory.createClient("client" + i, user, false)));
+        }
+
+        var response = batchClients(operations, tokenService.createToken(user));
+        assertTrue(response.getStatus() == HttpStatus.BAD_REQUEST.value());
+
+        var errorList = mapper.readValue(response.getContentAsString(), ErrorListDto.class);
+        assertEquals(INVALID_BATCH_SIZE, errorList.getErrors().get(0));
+    }
+
     private MockHttpServletResponse getClients(String token) throws Exception {
+        return getClients(token, null);
+    }
+
+    private MockHttpServletResponse getClients(String token, String etag) throws Exception {
+        var header = JWTTokenService.createTokenHeader(token);
+        var request = get("/clients/getAll")
+                .header(header.getValue0(), header.getValue1())
+                .secure(true);
+        if (etag != null) request.header("If-None-Match", etag);
+        return mvc.perform(request)
+                .andReturn()
+                .getResponse();
+    }
+
+    private MockHttpServletResponse streamClients(String token) throws Exception {
         var header = JWTTokenService.createTokenHeader(token);
-        return mvc.perform(get("/clients/getAll")
+        return mvc.perform(get("/clients/stream")
                 .header(header.getValue0(), header.getValue1())
                 .secure(true))
                 .andReturn()
                 .getResponse();
     }
 
+    private MockHttpServletResponse getClientPage(String token, String cursor, int limit) throws Exception {
+        var header = JWTTokenService.createTokenHeader(token);
+        var request = get("/clients/getPage")
+                .param("limit", String.valueOf(limit))
+                .header(header.getValue0(), header.getValue1())
+                .secure(true);
+        if (cursor != null) request.param("after", cursor);
+        return mvc.perform(request)
+                .andReturn()
+                .getResponse();
+    }
+
     private MockHttpServletResponse addClient(Client client, String token) throws Exception {
         var header = JWTTokenService.createTokenHeader(token);
         var writer = new StringWriter();
@@ -312,4 +528,18 @@ public class ClientControllerTest {
                 .andReturn()
                 .getResponse();
     }
-}
\ No newline at end of file
+
+    private MockHttpServletResponse batchClients(List<BatchOperationDto<Client>> operations, String token)
+            throws Exception {
+        var header = JWTTokenService.createTokenHeader(token);
+        var writer = new StringWriter();
+        mapper.writeValue(writer, operations);
+        return mvc.perform(post("/clients/batch")
+                .header(header.getValue0(), header.getValue1())
+                .secure(true)
+                .contentType("application/json")
+                .content(writer.toString()))
+                .andReturn()
+                .getResponse();
+    }
+}
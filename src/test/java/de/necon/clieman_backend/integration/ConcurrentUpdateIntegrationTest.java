@@ -0,0 +1,162 @@
+package de.necon.clieman_backend.integration;
+
+import de.necon.clieman_backend.listeners.ResetDatabaseTestExecutionListener;
+import de.necon.clieman_backend.model.BatchOperation;
+import de.necon.clieman_backend.model.Client;
+import de.necon.clieman_backend.model.Event;
+import de.necon.clieman_backend.model.ID;
+import de.necon.clieman_backend.model.User;
+import de.necon.clieman_backend.repository.ClientRepository;
+import de.necon.clieman_backend.repository.EventRepository;
+import de.necon.clieman_backend.repository.UserRepository;
+import de.necon.clieman_backend.service.ClientService;
+import de.necon.clieman_backend.service.EventService;
+import de.necon.clieman_backend.util.ModelFactory;
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestExecutionListeners;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two devices update the same item at the same time: the first one loads the item, the second one updates it and
+ * commits before the first one writes. The versions are only change counters, so the last writer wins.
+ */
+@ActiveProfiles("test")
+@TestExecutionListeners(mergeMode =
+        TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS,
+        listeners = {ResetDatabaseTestExecutionListener.class}
+)
+@SpringBootTest
+public class ConcurrentUpdateIntegrationTest {
+
+    @Autowired
+    ClientService clientService;
+
+    @Autowired
+    EventService eventService;
+
+    @Autowired
+    ClientRepository clientRepository;
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Autowired
+    ModelFactory modelFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @TestConfiguration
+    public static class Config {
+        @Bean
+        ModelFactory modelFactory(@Autowired UserRepository userRepository,
+                                  @Autowired ClientRepository clientRepository,
+                                  @Autowired EventRepository eventRepository) {
+            return new ModelFactory(userRepository, clientRepository, eventRepository);
+
+        }
+    }
+
+    @Test
+    public void updateClient_ConcurrentUpdate_LastWriterWins() {
+        var user = modelFactory.createUser("client@email.com", true, true);
+        modelFactory.createClient("client", user, true);
+
+        inTransaction(() -> {
+            clientRepository.findById(new ID("client", user)).orElseThrow();
+            inNewTransaction(() -> clientService.updateClient(createClient(user, "second")));
+            clientService.updateClient(createClient(user, "first"));
+        });
+
+        var stored = clientRepository.findById(new ID("client", user)).orElseThrow();
+        assertEquals("first", stored.getName());
+        assertTrue(stored.getVersion() > 0);
+    }
+
+    @Test
+    public void clientBatch_ConcurrentUpdate_LastWriterWins() {
+        var user = modelFactory.createUser("client-batch@email.com", true, true);
+        modelFactory.createClient("client", user, true);
+
+        inTransaction(() -> {
+            clientRepository.findById(new ID("client", user)).orElseThrow();
+            inNewTransaction(() -> clientService.updateClient(createClient(user, "second")));
+            var results = clientService.applyBatch(user,
+                    List.of(Pair.with(BatchOperation.UPDATE, createClient(user, "first"))));
+            assertEquals(List.of(List.of()), results);
+        });
+
+        var stored = clientRepository.findById(new ID("client", user)).orElseThrow();
+        assertEquals("first", stored.getName());
+        assertTrue(stored.getVersion() > 0);
+    }
+
+    @Test
+    public void updateEvent_ConcurrentUpdate_LastWriterWins() {
+        var user = modelFactory.createUser("event@email.com", true, true);
+        modelFactory.createEvent("event", user, List.of(), true);
+
+        inTransaction(() -> {
+            eventRepository.findById(new ID("event", user)).orElseThrow();
+            inNewTransaction(() -> eventService.updateEvent(createEvent(user, "second")));
+            eventService.updateEvent(createEvent(user, "first"));
+        });
+
+        var stored = eventRepository.findById(new ID("event", user)).orElseThrow();
+        assertEquals("first", stored.getName());
+        assertTrue(stored.getVersion() > 0);
+    }
+
+    @Test
+    public void eventBatch_ConcurrentUpdate_LastWriterWins() {
+        var user = modelFactory.createUser("event-batch@email.com", true, true);
+        modelFactory.createEvent("event", user, List.of(), true);
+
+        inTransaction(() -> {
+            eventRepository.findById(new ID("event", user)).orElseThrow();
+            inNewTransaction(() -> eventService.updateEvent(createEvent(user, "second")));
+            var results = eventService.applyBatch(user,
+                    List.of(Pair.with(BatchOperation.UPDATE, createEvent(user, "first"))));
+            assertEquals(List.of(List.of()), results);
+        });
+
+        var stored = eventRepository.findById(new ID("event", user)).orElseThrow();
+        assertEquals("first", stored.getName());
+        assertTrue(stored.getVersion() > 0);
+    }
+
+    private Client createClient(User user, String name) {
+        var client = modelFactory.createClient("client", user, false);
+        client.setName(name);
+        return client;
+    }
+
+    private Event createEvent(User user, String name) {
+        var event = modelFactory.createEvent("event", user, List.of());
+        event.setName(name);
+        return event;
+    }
+
+    private void inTransaction(Runnable runnable) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> runnable.run());
+    }
+
+    private void inNewTransaction(Runnable runnable) {
+        var template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.executeWithoutResult(status -> runnable.run());
+    }
+}
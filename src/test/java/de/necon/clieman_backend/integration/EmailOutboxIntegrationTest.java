@@ -0,0 +1,111 @@
+package de.necon.clieman_backend.integration;
+
+import de.necon.clieman_backend.listeners.ResetDatabaseTestExecutionListener;
+import de.necon.clieman_backend.logic.EmailOutboxDispatcher;
+import de.necon.clieman_backend.repository.OutboxEmailRepository;
+import de.necon.clieman_backend.service.EmailOutboxService;
+import de.necon.clieman_backend.service.EmailService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestExecutionListeners;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.mail.MessagingException;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@TestExecutionListeners(mergeMode =
+        TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS,
+        listeners = {ResetDatabaseTestExecutionListener.class}
+)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Transactional
+public class EmailOutboxIntegrationTest {
+
+    @MockBean
+    EmailService emailService;
+
+    @Autowired
+    EmailOutboxService emailOutboxService;
+
+    @Autowired
+    EmailOutboxDispatcher emailOutboxDispatcher;
+
+    @Autowired
+    OutboxEmailRepository outboxEmailRepository;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void dispatch_queuedEmailsAreSentInOneBatch() {
+
+        emailOutboxService.queueMessage("test1@email.com", "subject", "text");
+        emailOutboxService.queueMessage("test2@email.com", "subject", "text");
+        emailOutboxService.queueMessage("test3@email.com", "subject", "text");
+
+        verify(emailService, never()).sendMessages(any());
+
+        assertEquals(3, emailOutboxDispatcher.dispatchPendingMessages());
+
+        ArgumentCaptor<List<SimpleMailMessage>> captor = ArgumentCaptor.forClass(List.class);
+        verify(emailService, times(1)).sendMessages(captor.capture());
+        assertEquals(3, captor.getValue().size());
+        assertEquals(0, outboxEmailRepository.count());
+    }
+
+    @Test
+    public void dispatch_failedEmailsAreRetriedLater() {
+
+        doThrow(new MailSendException("mail server not reachable")).when(emailService).sendMessages(any());
+
+        emailOutboxService.queueMessage("test@email.com", "subject", "text");
+        assertEquals(0, emailOutboxDispatcher.dispatchPendingMessages());
+
+        var emails = outboxEmailRepository.findAll();
+        assertEquals(1, emails.size());
+        var email = emails.get(0);
+        assertEquals(1, email.getAttempts());
+        assertNotNull(email.getLastError());
+        assertTrue(email.getNextAttemptAt().after(new Date()));
+
+        // the email isn't due yet
+        assertEquals(0, emailOutboxDispatcher.dispatchPendingMessages());
+        verify(emailService, times(1)).sendMessages(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void dispatch_onlyFailedEmailsRemain() {
+
+        doAnswer(invocation -> {
+            var messages = (List<SimpleMailMessage>) invocation.getArgument(0);
+            var failed = messages.stream()
+                    .filter(m -> m.getTo()[0].equals("invalid@email.com"))
+                    .findFirst().get();
+            throw new MailSendException(Map.of(failed, new MessagingException("invalid address")));
+        }).when(emailService).sendMessages(any());
+
+        emailOutboxService.queueMessage("test@email.com", "subject", "text");
+        emailOutboxService.queueMessage("invalid@email.com", "subject", "text");
+
+        assertEquals(1, emailOutboxDispatcher.dispatchPendingMessages());
+
+        var emails = outboxEmailRepository.findAll();
+        assertEquals(1, emails.size());
+        assertEquals("invalid@email.com", emails.get(0).getRecipient());
+    }
+}
@@ -3,16 +3,27 @@ package de.necon.clieman_backend.integration;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import de.necon.clieman_backend.extensions.MaxQueries;
+import de.necon.clieman_backend.extensions.SqlStatementCounter;
 import de.necon.clieman_backend.util.ModelFactory;
+import de.necon.clieman_backend.listeners.QueryBudgetTestExecutionListener;
 import de.necon.clieman_backend.listeners.ResetDatabaseTestExecutionListener;
+import de.necon.clieman_backend.model.BatchOperation;
+import de.necon.clieman_backend.model.Client;
 import de.necon.clieman_backend.model.Event;
 import de.necon.clieman_backend.model.User;
+import de.necon.clieman_backend.network.BatchOperationDto;
+import de.necon.clieman_backend.network.BatchResultDto;
 import de.necon.clieman_backend.network.ErrorListDto;
+import de.necon.clieman_backend.network.PageDto;
 import de.necon.clieman_backend.repository.ClientRepository;
 import de.necon.clieman_backend.repository.EventRepository;
 import de.necon.clieman_backend.repository.UserRepository;
 import de.necon.clieman_backend.service.EventService;
 import de.necon.clieman_backend.service.JWTTokenService;
+import de.necon.clieman_backend.service.UserCache;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -26,9 +37,13 @@ import org.springframework.test.context.TestExecutionListeners;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import static de.necon.clieman_backend.config.ServiceErrorMessages.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -39,13 +54,17 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 @ActiveProfiles("test")
 @TestExecutionListeners(mergeMode =
         TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS,
-        listeners = {ResetDatabaseTestExecutionListener.class}
+        listeners = {ResetDatabaseTestExecutionListener.class, QueryBudgetTestExecutionListener.class}
 )
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureMockMvc
 @Transactional
 public class EventControllerTest {
 
+    // the event counts compared by the query count tests
+    private static final int FEW_EVENTS = 2;
+    private static final int MANY_EVENTS = 10;
+
     @Autowired
     MockMvc mvc;
 
@@ -64,6 +83,12 @@ public class EventControllerTest {
     @Autowired
     ModelFactory modelFactory;
 
+    @Autowired
+    UserCache userCache;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
     @TestConfiguration
     public static class Config {
         @Bean
@@ -83,6 +108,7 @@ public class EventControllerTest {
     }
 
     @Test
+    @MaxQueries(5)
     public void getEvents_authenticated() throws Exception {
         var enabledUser = new User("test@email.com",
                 "password", "test", true);
@@ -120,7 +146,217 @@ public class EventControllerTest {
         }
     }
 
+    /**
+     * Ensures that the clients of the events are not loaded with one query per event.
+     */
+    @Test
+    public void getEvents_queryCountIndependentOfEventCount() throws Exception {
+        var fewEventsToken = createUserWithEvents("few@email.com", FEW_EVENTS);
+        var manyEventsToken = createUserWithEvents("many@email.com", MANY_EVENTS);
+
+        var fewEventsCount = countStatements(() -> getEvents(fewEventsToken));
+        var manyEventsCount = countStatements(() -> getEvents(manyEventsToken));
+
+        assertEquals(FEW_EVENTS, mapper.readTree(getEvents(fewEventsToken).getContentAsString()).size());
+        assertEquals(MANY_EVENTS, mapper.readTree(getEvents(manyEventsToken).getContentAsString()).size());
+        assertEquals(fewEventsCount, manyEventsCount);
+    }
+
+    @Test
+    public void getEvents_binaryFormats_sameEventsAsJson() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        var events = modelFactory.createEvents(List.of(new ModelFactory.SimpleEventCreationDesc(3, user)), true);
+        events.get(0).setDetails("details");
+        events.get(0).setStart(new Date(1000));
+        var token = tokenService.createToken(user);
+        var json = mapper.readTree(getEvents(token).getContentAsString());
+
+        var formats = Map.of(
+                "application/x-jackson-smile", new ObjectMapper(new SmileFactory()),
+                "application/cbor", new ObjectMapper(new CBORFactory()));
+
+        for (var format : formats.entrySet()) {
+            var header = JWTTokenService.createTokenHeader(token);
+            var response = mvc.perform(get("/events/getAll")
+                    .header(header.getValue0(), header.getValue1())
+                    .accept(format.getKey())
+                    .secure(true))
+                    .andReturn()
+                    .getResponse();
+
+            assertEquals(HttpStatus.OK.value(), response.getStatus());
+            assertEquals(format.getKey(), response.getContentType());
+            assertEquals(json, format.getValue().readTree(response.getContentAsByteArray()));
+        }
+    }
+
+    /**
+     * Ensures that a matching ETag is answered without loading the events.
+     */
+    @Test
+    @MaxQueries(6)
+    public void getEvents_matchingETag_notModifiedWithoutLoadingEvents() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        modelFactory.createEvents(List.of(new ModelFactory.SimpleEventCreationDesc(3, user)), true);
+        var token = tokenService.createToken(user);
+        var etag = getEvents(token).getHeader("ETag");
+        var loadingCount = countStatements(() -> getEvents(token));
+
+        entityManager.flush();
+        entityManager.clear();
+        SqlStatementCounter.reset();
+        var response = getEvents(token, etag);
+
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+        assertEquals("", response.getContentAsString());
+        // neither the event views nor the client links are queried
+        assertTrue(SqlStatementCounter.getCount() <= loadingCount - 2);
+
+        var event = modelFactory.createEvent("event0", user, List.of());
+        eventService.updateEvent(event);
+        response = getEvents(token, etag);
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertTrue(!etag.equals(response.getHeader("ETag")));
+    }
+
+    @Test
+    public void getEventPage_queryCountIndependentOfEventCount() throws Exception {
+        var fewEventsToken = createUserWithEvents("few@email.com", FEW_EVENTS);
+        var manyEventsToken = createUserWithEvents("many@email.com", MANY_EVENTS);
+
+        var fewEventsCount = countStatements(() -> getEventPage(fewEventsToken, null, 50));
+        var manyEventsCount = countStatements(() -> getEventPage(manyEventsToken, null, 50));
+
+        assertEquals(FEW_EVENTS, mapper.readTree(getEventPage(fewEventsToken, null, 50).getContentAsString())
+                .get("items").size());
+        assertEquals(MANY_EVENTS, mapper.readTree(getEventPage(manyEventsToken, null, 50).getContentAsString())
+                .get("items").size());
+        assertEquals(fewEventsCount, manyEventsCount);
+    }
+
+    @Test
+    @MaxQueries(4)
+    public void getEventsInRange_onlyOverlappingEventsAreSend() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        var inRange = modelFactory.createEvent("inRange", user, List.of());
+        inRange.setStart(new Date(100));
+        inRange.setEnd(new Date(200));
+        var outOfRange = modelFactory.createEvent("outOfRange", user, List.of());
+        outOfRange.setStart(new Date(1000));
+        outOfRange.setEnd(new Date(2000));
+        eventService.addEvent(inRange);
+        eventService.addEvent(outOfRange);
+
+        var response = getEventsInRange(tokenService.createToken(user), "150", "500");
+        assertTrue(response.getStatus() == HttpStatus.OK.value());
+
+        var events = mapper.readValue(response.getContentAsString(), new TypeReference<List<Event>>(){});
+        assertEquals(1, events.size());
+        assertEquals("inRange", events.get(0).getId().getId());
+    }
+
+    @Test
+    public void getEventsInRange_invalid_malformedRange() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+
+        var response = getEventsInRange(tokenService.createToken(user), "500", "150");
+        assertTrue(response.getStatus() == HttpStatus.BAD_REQUEST.value());
+        var errorList = mapper.readValue(response.getContentAsString(), ErrorListDto.class);
+        assertEquals(INVALID_DATE_RANGE, errorList.getErrors().get(0));
+
+        response = getEventsInRange(tokenService.createToken(user), "notANumber", "150");
+        assertTrue(response.getStatus() == HttpStatus.BAD_REQUEST.value());
+        errorList = mapper.readValue(response.getContentAsString(), ErrorListDto.class);
+        assertEquals(MALFORMED_DATA, errorList.getErrors().get(0));
+    }
+
+    @Test
+    @MaxQueries(6)
+    public void streamEvents_sameEventsAsGetAll() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        modelFactory.createEvents(List.of(
+                new ModelFactory.SimpleEventCreationDesc(3, user)
+        ), true);
+
+        var response = streamEvents(tokenService.createToken(user));
+        assertTrue(response.getStatus() == HttpStatus.OK.value());
+        var streamed = mapper.readValue(response.getContentAsString(), new TypeReference<List<Event>>(){});
+
+        response = getEvents(tokenService.createToken(user));
+        var all = mapper.readValue(response.getContentAsString(), new TypeReference<List<Event>>(){});
+
+        assertEquals(3, streamed.size());
+        assertTrue(streamed.containsAll(all));
+    }
+
+    @Test
+    @MaxQueries(4)
+    public void getEventPage_allEventsAreVisitedOnce() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        modelFactory.createEvents(List.of(
+                new ModelFactory.SimpleEventCreationDesc(5, user)
+        ), true);
+
+        List<String> visited = new ArrayList<>();
+        String cursor = null;
+        do {
+            var response = getEventPage(tokenService.createToken(user), cursor, 2);
+            assertTrue(response.getStatus() == HttpStatus.OK.value());
+
+            PageDto<Event> page = mapper.readValue(response.getContentAsString(),
+                    new TypeReference<PageDto<Event>>(){});
+            assertTrue(page.getItems().size() <= 2);
+            page.getItems().forEach(e -> visited.add(e.getId().getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of("event0", "event1", "event2", "event3", "event4"), visited);
+    }
+
+    @Test
+    @MaxQueries(5)
+    public void getEventPageOfClient_onlyEventsOfClientAreVisited() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        var user2 = modelFactory.createUser("test2@email.com", true, true);
+        var client = modelFactory.createClient("client", user, true);
+        var client2 = modelFactory.createClient("client2", user, true);
+        var otherClient = modelFactory.createClient("client", user2, true);
+
+        modelFactory.createEvent("event0", user, List.of(client), true);
+        modelFactory.createEvent("event1", user, List.of(client2), true);
+        modelFactory.createEvent("event2", user, List.of(client, client2), true);
+        modelFactory.createEvent("event3", user, List.of(client), true);
+        modelFactory.createEvent("event4", user, List.of(), true);
+        modelFactory.createEvent("event5", user2, List.of(otherClient), true);
+
+        List<String> visited = new ArrayList<>();
+        String cursor = null;
+        do {
+            var response = getEventPageOfClient(tokenService.createToken(user), "client", cursor, 2);
+            assertEquals(HttpStatus.OK.value(), response.getStatus());
+
+            PageDto<Event> page = mapper.readValue(response.getContentAsString(),
+                    new TypeReference<PageDto<Event>>(){});
+            page.getItems().forEach(e -> visited.add(e.getId().getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of("event0", "event2", "event3"), visited);
+    }
+
+    @Test
+    public void getEventPageOfClient_notExistingClient() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+
+        var response = getEventPageOfClient(tokenService.createToken(user), "client", null, 2);
+        assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
+
+        var errors = mapper.readValue(response.getContentAsString(), ErrorListDto.class).getErrors();
+        assertTrue(errors.contains(CLIENT_NOT_FOUND));
+    }
+
     @Test
+    @MaxQueries(8)
     public void addEvent_valid() throws Exception {
         var user = modelFactory.createUser("test@email.com", true, true);
         var clients = modelFactory.createClients(3, user, true);
@@ -163,6 +399,7 @@ public class EventControllerTest {
 
 
     @Test
+    @MaxQueries(6)
     public void removeEvent_valid() throws Exception {
         var user = modelFactory.createUser("test@email.com", true, true);
         var clients = modelFactory.createClients(3, user, true);
@@ -190,6 +427,7 @@ public class EventControllerTest {
 
 
     @Test
+    @MaxQueries(4)
     public void updateEvent_valid() throws Exception {
         var user = modelFactory.createUser("test@email.com", true, true);
         var clients = modelFactory.createClients(3, user, true);
@@ -250,20 +488,161 @@ public class EventControllerTest {
         assertEquals(MALFORMED_DATA, errorList.getErrors().get(0));
     }
 
+    @Test
+    // the links of the updated event are selected and only their difference is deleted and inserted
+    @MaxQueries(9)
+    public void batchEvents_resultsPerOperation() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        var client1 = modelFactory.createClient("client1", user, true);
+        var client2 = modelFactory.createClient("client2", user, true);
+        var event1 = modelFactory.createEvent("event1", user, List.of(client1), true);
+
+        var updated = modelFactory.createEvent("event1", user, List.of(client2), false);
+        updated.setColor("#303050");
+
+        var response = batchEvents(List.of(
+                new BatchOperationDto<>(BatchOperation.ADD,
+                        modelFactory.createEvent("event2", user, List.of(client1, client2), false)),
+                new BatchOperationDto<>(BatchOperation.ADD, modelFactory.createEvent("event3", user,
+                        List.of(modelFactory.createClient("unknown", user, false)), false)),
+                new BatchOperationDto<>(BatchOperation.UPDATE, updated),
+                new BatchOperationDto<>(BatchOperation.REMOVE, modelFactory.createEvent("event4", user, List.of(), false))
+        ), tokenService.createToken(user));
+        assertTrue(response.getStatus() == HttpStatus.OK.value());
+
+        List<BatchResultDto> results = mapper.readValue(response.getContentAsString(),
+                new TypeReference<List<BatchResultDto>>(){});
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).getErrors().isEmpty());
+        assertEquals(List.of(EVENT_NOT_VALID), results.get(1).getErrors());
+        assertTrue(results.get(2).getErrors().isEmpty());
+        assertEquals(List.of(EVENT_NOT_FOUND), results.get(3).getErrors());
+
+        entityManager.clear();
+        var events = eventService.getEventsOfUser(user);
+        assertEquals(2, events.size());
+        var storedEvent1 = events.stream().filter(e -> e.getId().equals(event1.getId())).findFirst().get();
+        assertEquals("#303050", storedEvent1.getColor());
+        assertEquals(List.of(client2), storedEvent1.getClients());
+    }
+
+    @Test
+    public void batchEvents_insertsAreBatched() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        var clients = modelFactory.createClients(2, user, true);
+
+        var fewEventsCount = countStatements(() -> batchEvents(createAddOperations(user, "a", 5, clients),
+                tokenService.createToken(user)));
+        var manyEventsCount = countStatements(() -> batchEvents(createAddOperations(user, "b", 20, clients),
+                tokenService.createToken(user)));
+
+        assertEquals(25, eventService.getEventsOfUser(user).size());
+        assertEquals(fewEventsCount, manyEventsCount);
+    }
+
+    private List<BatchOperationDto<Event>> createAddOperations(User user, String prefix, int count,
+                                                               List<Client> clients) {
+        List<BatchOperationDto<Event>> operations = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            var event = modelFactory.createEvent(prefix + i, user, new ArrayList<>(clients), false);
+            operations.add(new BatchOperationDto<>(BatchOperation.ADD, event));
+        }
+        return operations;
+    }
+
+
+    /**
+     * Counts the sql statements issued by a request. The persistence context is cleared before, so that entities
+     * created by the test are not served from it.
+     */
+    /**
+     * Creates a user, whose events don't share their clients.
+     * @return A token of the user.
+     */
+    private String createUserWithEvents(String email, int eventCount) {
+        var user = modelFactory.createUser(email, true, true);
+        modelFactory.createEventsWithOwnClients(eventCount, 2, user, true);
+        return tokenService.createToken(user);
+    }
+
+    private int countStatements(RequestCall call) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        userCache.clear();
+        SqlStatementCounter.reset();
+        var response = call.perform();
+        assertTrue(response.getStatus() == HttpStatus.OK.value());
+        return SqlStatementCounter.getCount();
+    }
+
+    private interface RequestCall {
+        MockHttpServletResponse perform() throws Exception;
+    }
 
     private Event deserialize(String serialized) throws JsonProcessingException {
         return mapper.readValue(serialized, Event.class);
     }
 
     private MockHttpServletResponse getEvents(String token) throws Exception {
+        return getEvents(token, null);
+    }
+
+    private MockHttpServletResponse getEvents(String token, String etag) throws Exception {
+        var header = JWTTokenService.createTokenHeader(token);
+        var request = get("/events/getAll")
+                .header(header.getValue0(), header.getValue1())
+                .secure(true);
+        if (etag != null) request.header("If-None-Match", etag);
+        return mvc.perform(request)
+                .andReturn()
+                .getResponse();
+    }
+
+    private MockHttpServletResponse getEventsInRange(String token, String from, String to) throws Exception {
         var header = JWTTokenService.createTokenHeader(token);
-        return mvc.perform(get("/events/getAll")
+        return mvc.perform(get("/events/range")
+                .param("from", from)
+                .param("to", to)
                 .header(header.getValue0(), header.getValue1())
                 .secure(true))
                 .andReturn()
                 .getResponse();
     }
 
+    private MockHttpServletResponse streamEvents(String token) throws Exception {
+        var header = JWTTokenService.createTokenHeader(token);
+        return mvc.perform(get("/events/stream")
+                .header(header.getValue0(), header.getValue1())
+                .secure(true))
+                .andReturn()
+                .getResponse();
+    }
+
+    private MockHttpServletResponse getEventPage(String token, String cursor, int limit) throws Exception {
+        var header = JWTTokenService.createTokenHeader(token);
+        var request = get("/events/getPage")
+                .param("limit", String.valueOf(limit))
+                .header(header.getValue0(), header.getValue1())
+                .secure(true);
+        if (cursor != null) request.param("after", cursor);
+        return mvc.perform(request)
+                .andReturn()
+                .getResponse();
+    }
+
+    private MockHttpServletResponse getEventPageOfClient(String token, String clientId, String cursor, int limit)
+            throws Exception {
+        var header = JWTTokenService.createTokenHeader(token);
+        var request = get("/clients/" + clientId + "/events")
+                .param("limit", String.valueOf(limit))
+                .header(header.getValue0(), header.getValue1())
+                .secure(true);
+        if (cursor != null) request.param("after", cursor);
+        return mvc.perform(request)
+                .andReturn()
+                .getResponse();
+    }
+
     private MockHttpServletResponse addEvent(Event event, String token) throws Exception {
         var header = JWTTokenService.createTokenHeader(token);
         var writer = new StringWriter();
@@ -302,4 +681,18 @@ public class EventControllerTest {
                 .andReturn()
                 .getResponse();
     }
-}
\ No newline at end of file
+
+    private MockHttpServletResponse batchEvents(List<BatchOperationDto<Event>> operations, String token)
+            throws Exception {
+        var header = JWTTokenService.createTokenHeader(token);
+        var writer = new StringWriter();
+        mapper.writeValue(writer, operations);
+        return mvc.perform(post("/events/batch")
+                .header(header.getValue0(), header.getValue1())
+                .secure(true)
+                .contentType("application/json")
+                .content(writer.toString()))
+                .andReturn()
+                .getResponse();
+    }
+}
@@ -1,11 +1,15 @@
 package de.necon.clieman_backend.integration;
 
 import com.icegreen.greenmail.store.FolderException;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import de.necon.clieman_backend.exception.ServiceError;
 import de.necon.clieman_backend.model.User;
 import de.necon.clieman_backend.repository.ClientRepository;
 import de.necon.clieman_backend.repository.UserRepository;
 import de.necon.clieman_backend.repository.VerificationTokenRepository;
 import de.necon.clieman_backend.service.JWTTokenService;
+import de.necon.clieman_backend.util.Asserter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +19,10 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.util.Date;
+
+import static de.necon.clieman_backend.config.ServiceErrorMessages.TOKEN_IS_NOT_VALID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -66,4 +74,54 @@ public class JWTTokenTest {
                 .header(tokenHeader.getValue0(), tokenHeader.getValue1()).secure(true))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    public void getSubjectFromToken_verifiedTokenIsAcceptedAgain() {
+        User user = new User("test@mail.com", "password", "tester", true);
+        String token = tokenService.createToken(user);
+
+        assertEquals(user.getEmail(), tokenService.getSubjectFromToken(token));
+        assertEquals(user.getEmail(), tokenService.getSubjectFromToken(JWTTokenService.TOKEN_PREFIX + token));
+    }
+
+    @Test
+    public void getSubjectFromToken_expiredOrForgedTokensAreRejected() {
+        var algorithm = Algorithm.HMAC512(tokenService.getSecret().getBytes());
+        var expiredToken = JWT.create()
+                .withSubject("test@mail.com")
+                .withExpiresAt(new Date(System.currentTimeMillis() - 1000))
+                .sign(algorithm);
+
+        var forgedToken = JWT.create()
+                .withSubject("test@mail.com")
+                .withExpiresAt(new Date(System.currentTimeMillis() + 100000))
+                .sign(Algorithm.HMAC512("anotherSecret".getBytes()));
+
+        var serviceError = (ServiceError) Asserter.assertException(ServiceError.class).isThrownBy(()->{
+            tokenService.getSubjectFromToken(expiredToken);
+        }).source();
+        Asserter.assertContainsError(serviceError.getErrors(), TOKEN_IS_NOT_VALID);
+
+        serviceError = (ServiceError) Asserter.assertException(ServiceError.class).isThrownBy(()->{
+            tokenService.getSubjectFromToken(forgedToken);
+        }).source();
+        Asserter.assertContainsError(serviceError.getErrors(), TOKEN_IS_NOT_VALID);
+    }
+
+    @Test
+    public void getSubjectFromToken_changedSecretInvalidatesVerifiedTokens() {
+        User user = new User("test@mail.com", "password", "tester", true);
+        String token = tokenService.createToken(user);
+        assertEquals(user.getEmail(), tokenService.getSubjectFromToken(token));
+
+        var secret = tokenService.getSecret();
+        try {
+            tokenService.setSecret("anotherSecret");
+            Asserter.assertException(ServiceError.class).isThrownBy(()->{
+                tokenService.getSubjectFromToken(token);
+            });
+        } finally {
+            tokenService.setSecret(secret);
+        }
+    }
 }
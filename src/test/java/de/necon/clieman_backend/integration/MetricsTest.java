@@ -0,0 +1,130 @@
+package de.necon.clieman_backend.integration;
+
+import de.necon.clieman_backend.listeners.ResetDatabaseTestExecutionListener;
+import de.necon.clieman_backend.repository.ClientRepository;
+import de.necon.clieman_backend.repository.EventRepository;
+import de.necon.clieman_backend.repository.UserRepository;
+import de.necon.clieman_backend.service.JWTTokenService;
+import de.necon.clieman_backend.util.ModelFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestExecutionListeners;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@ActiveProfiles("test")
+@TestExecutionListeners(mergeMode =
+        TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS,
+        listeners = {ResetDatabaseTestExecutionListener.class}
+)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Transactional
+public class MetricsTest {
+
+    // see clieman.metrics.scraper of the test configuration
+    private static final String SCRAPER_USERNAME = "prometheus";
+    private static final String SCRAPER_PASSWORD = "scraper-password";
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    JWTTokenService tokenService;
+
+    @Autowired
+    ModelFactory modelFactory;
+
+    @TestConfiguration
+    public static class Config {
+        @Bean
+        ModelFactory modelFactory(@Autowired UserRepository userRepository,
+                                  @Autowired ClientRepository clientRepository,
+                                  @Autowired EventRepository eventRepository) {
+            return new ModelFactory(userRepository, clientRepository, eventRepository);
+
+        }
+    }
+
+    @Test
+    public void prometheus_onlyAccessibleForScraper() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        var header = JWTTokenService.createTokenHeader(tokenService.createToken(user));
+
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), mvc.perform(get("/actuator/prometheus").secure(true))
+                .andReturn().getResponse().getStatus());
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), mvc.perform(get("/actuator/prometheus")
+                .header(header.getValue0(), header.getValue1())
+                .secure(true))
+                .andReturn().getResponse().getStatus());
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), mvc.perform(get("/actuator/prometheus")
+                .with(httpBasic(SCRAPER_USERNAME, "wrong password"))
+                .secure(true))
+                .andReturn().getResponse().getStatus());
+
+        var response = scrape();
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertTrue(response.getContentType().startsWith("text/plain"));
+    }
+
+    @Test
+    public void health_needsNoAuthentication() throws Exception {
+        var response = mvc.perform(get("/actuator/health").secure(true)).andReturn().getResponse();
+        // Note: Is down without a mail server
+        assertTrue(response.getContentAsString().contains("\"status\""));
+    }
+
+    @Test
+    public void prometheus_requestServiceAndRepositoryLatenciesAreRecorded() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        modelFactory.createClients(2, user, true);
+
+        var header = JWTTokenService.createTokenHeader(tokenService.createToken(user));
+        var status = mvc.perform(get("/clients/getAll")
+                .header(header.getValue0(), header.getValue1())
+                .secure(true))
+                .andReturn().getResponse().getStatus();
+        assertEquals(HttpStatus.OK.value(), status);
+
+        var metrics = scrape().getContentAsString();
+
+        assertHasSample(metrics, "http_server_requests_seconds_bucket{", "uri=\"/clients/getAll\"");
+        assertHasSample(metrics, "http_server_requests_seconds{", "uri=\"/clients/getAll\"", "quantile=\"0.99\"");
+        assertHasSample(metrics, "http_server_requests_seconds{", "uri=\"/clients/getAll\"", "quantile=\"0.999\"");
+        assertHasSample(metrics, "clieman_service_seconds_count{", "class=\"ClientServiceImpl\"",
+                "exception=\"none\"");
+        assertHasSample(metrics, "clieman_repository_seconds_count{", "class=\"ClientRepository\"");
+        assertHasSample(metrics, "clieman_jwt_verification_seconds_count{", "result=\"verified\"");
+        assertHasSample(metrics, "hikaricp_connections_acquire_seconds{", "quantile=\"0.5\"");
+    }
+
+    private MockHttpServletResponse scrape() throws Exception {
+        return mvc.perform(get("/actuator/prometheus")
+                .with(httpBasic(SCRAPER_USERNAME, SCRAPER_PASSWORD))
+                .secure(true))
+                .andReturn().getResponse();
+    }
+
+    /**
+     * Asserts that there is a sample line of the given metric, which contains all given labels.
+     */
+    private static void assertHasSample(String metrics, String name, String... labels) {
+        assertTrue(metrics.lines().anyMatch(line -> line.startsWith(name) &&
+                Arrays.stream(labels).allMatch(line::contains)),
+                "no sample " + name + String.join(",", labels) + "}");
+    }
+}
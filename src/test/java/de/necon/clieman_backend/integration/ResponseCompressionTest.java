@@ -0,0 +1,94 @@
+package de.necon.clieman_backend.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.necon.clieman_backend.listeners.ResetDatabaseTestExecutionListener;
+import de.necon.clieman_backend.model.EventView;
+import de.necon.clieman_backend.repository.ClientRepository;
+import de.necon.clieman_backend.repository.EventRepository;
+import de.necon.clieman_backend.repository.UserRepository;
+import de.necon.clieman_backend.service.JWTTokenService;
+import de.necon.clieman_backend.util.ModelFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestExecutionListeners;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the compression of the real server (MockMvc doesn't pass through tomcat). Isn't transactional, since the
+ * server has to see the stored events.
+ */
+@ActiveProfiles("test")
+@TestExecutionListeners(mergeMode =
+        TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS,
+        listeners = {ResetDatabaseTestExecutionListener.class}
+)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ResponseCompressionTest {
+
+    // enough events to exceed server.compression.min-response-size
+    private static final int EVENT_COUNT = 50;
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Autowired
+    JWTTokenService tokenService;
+
+    @Autowired
+    ObjectMapper mapper;
+
+    @Autowired
+    ModelFactory modelFactory;
+
+    @TestConfiguration
+    public static class Config {
+        @Bean
+        ModelFactory modelFactory(@Autowired UserRepository userRepository,
+                                  @Autowired ClientRepository clientRepository,
+                                  @Autowired EventRepository eventRepository) {
+            return new ModelFactory(userRepository, clientRepository, eventRepository);
+
+        }
+    }
+
+    @Test
+    public void getEvents_gzipAccepted_compressedWithWeakETag() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        modelFactory.createEvents(List.of(new ModelFactory.SimpleEventCreationDesc(EVENT_COUNT, user)), true);
+
+        var header = JWTTokenService.createTokenHeader(tokenService.createToken(user));
+        var headers = new HttpHeaders();
+        headers.add(header.getValue0(), header.getValue1());
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        headers.add(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        var response = restTemplate.exchange("/events/getAll", HttpMethod.GET, new HttpEntity<>(headers),
+                byte[].class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(response.getHeaders().getETag().startsWith("W/"));
+        // tomcat lower cases the field names of Vary
+        assertTrue(response.getHeaders().getVary().stream().anyMatch(HttpHeaders.ACCEPT::equalsIgnoreCase));
+
+        try (var input = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            var events = mapper.readValue(input, EventView[].class);
+            assertEquals(EVENT_COUNT, events.length);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package de.necon.clieman_backend.integration;
+
+import de.necon.clieman_backend.extensions.SqlStatementCounter;
+import de.necon.clieman_backend.model.Tombstone;
+import de.necon.clieman_backend.model.User;
+import de.necon.clieman_backend.repository.ClientRepository;
+import de.necon.clieman_backend.repository.EventRepository;
+import de.necon.clieman_backend.repository.OutboxEmailRepository;
+import de.necon.clieman_backend.repository.TombstoneRepository;
+import de.necon.clieman_backend.repository.UserRepository;
+import de.necon.clieman_backend.repository.VerificationTokenRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Creates the schema with the flyway migrations (instead of hibernate) and checks that hibernate accepts the schema
+ * and that the hot lookups are supported by indexes.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migration;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.flyway.enabled=true",
+        "spring.flyway.placeholders.id_allocation_size=50",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+public class SchemaMigrationTest {
+
+    private static final String ID = "id";
+    private static final int LIMIT = 20;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    ClientRepository clientRepository;
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Autowired
+    VerificationTokenRepository verificationTokenRepository;
+
+    @Autowired
+    OutboxEmailRepository outboxEmailRepository;
+
+    @Autowired
+    TombstoneRepository tombstoneRepository;
+
+    @Test
+    public void migratedSchemaIsValid() {
+        // the context only starts if hibernate validated the migrated schema
+        jdbcTemplate.queryForObject("select count(*) from tb_user", Long.class);
+    }
+
+    /**
+     * Explains the SQL, that hibernate generates for the hot repository methods, with representative binds.
+     */
+    @Test
+    public void hotQueriesDontScanTables() {
+        var now = new Date();
+        var time = new Timestamp(now.getTime());
+        var page = PageRequest.of(0, LIMIT);
+        var failures = new ArrayList<String>();
+
+        check(failures, "ClientRepository.findAllByUser",
+                user -> clientRepository.findAllByUser(user),
+                user -> List.of(user.getId()));
+        check(failures, "ClientRepository.findPageByUser",
+                user -> clientRepository.findPageByUser(user, ID, page),
+                user -> List.of(user.getId(), ID, LIMIT));
+        check(failures, "ClientRepository.findAllByUserAndIds",
+                user -> clientRepository.findAllByUserAndIds(user, List.of(ID)),
+                user -> List.of(user.getId(), ID));
+        check(failures, "ClientRepository.findAllByUserModifiedAfter",
+                user -> clientRepository.findAllByUserModifiedAfter(user, now),
+                user -> List.of(user.getId(), time));
+        check(failures, "ClientRepository.findCollectionStateByUser",
+                user -> clientRepository.findCollectionStateByUser(user),
+                user -> List.of(user.getId()));
+
+        check(failures, "EventRepository.findAllByUser",
+                user -> eventRepository.findAllByUser(user),
+                user -> List.of(user.getId()));
+        check(failures, "EventRepository.findAllViewsByUser",
+                user -> eventRepository.findAllViewsByUser(user),
+                user -> List.of(user.getId()));
+        check(failures, "EventRepository.findViewPageByUser",
+                user -> eventRepository.findViewPageByUser(user, ID, page),
+                user -> List.of(user.getId(), ID, LIMIT));
+        check(failures, "EventRepository.findAllViewsByUserInRange",
+                user -> eventRepository.findAllViewsByUserInRange(user, now, now),
+                user -> List.of(user.getId(), time, time));
+        check(failures, "EventRepository.findViewsByUserModifiedAfter",
+                user -> eventRepository.findViewsByUserModifiedAfter(user, now),
+                user -> List.of(user.getId(), time));
+        check(failures, "EventRepository.findCollectionStateByUser",
+                user -> eventRepository.findCollectionStateByUser(user),
+                user -> List.of(user.getId()));
+        check(failures, "EventRepository.findAllByUserAndIds",
+                user -> eventRepository.findAllByUserAndIds(user, List.of(ID)),
+                user -> List.of(user.getId(), ID));
+        check(failures, "EventRepository.findAllByUserAndClientId",
+                user -> eventRepository.findAllByUserAndClientId(user, ID),
+                user -> List.of(user.getId(), ID, user.getId()));
+        check(failures, "EventRepository.findViewPageByClient",
+                user -> eventRepository.findViewPageByClient(user, ID, ID, page),
+                user -> List.of(user.getId(), ID, user.getId(), ID, LIMIT));
+        check(failures, "EventRepository.findClientReferencesByUserAndEvents",
+                user -> eventRepository.findClientReferencesByUserAndEvents(user.getId(), List.of(ID)),
+                user -> List.of(user.getId(), ID));
+        check(failures, "EventRepository.findReferencedClientIds",
+                user -> eventRepository.findReferencedClientIds(user.getId(), List.of(ID)),
+                user -> List.of(user.getId(), ID));
+        check(failures, "EventRepository.removeClientReferences",
+                user -> eventRepository.removeClientReferences(user.getId(), ID, List.of(ID)),
+                user -> List.of(user.getId(), ID, ID));
+        check(failures, "EventRepository.addClientReferences",
+                user -> eventRepository.addClientReferences(user.getId(), ID, List.of(ID)),
+                user -> List.of(ID, user.getId(), ID));
+
+        check(failures, "UserRepository.findByEmail",
+                user -> userRepository.findByEmail("test@email.com"),
+                user -> List.of("test@email.com"));
+        check(failures, "UserRepository.findByUsername",
+                user -> userRepository.findByUsername("username"),
+                user -> List.of("username"));
+        check(failures, "VerificationTokenRepository.findByToken",
+                user -> verificationTokenRepository.findByToken("token"),
+                user -> List.of("token"));
+        check(failures, "VerificationTokenRepository.deleteExpired",
+                user -> verificationTokenRepository.deleteExpired(now, LIMIT),
+                user -> List.of(time, LIMIT));
+        check(failures, "OutboxEmailRepository.findDue",
+                user -> outboxEmailRepository.findDue(now, page),
+                user -> List.of(time, LIMIT));
+        check(failures, "TombstoneRepository.findItemIdsDeletedAfter",
+                user -> tombstoneRepository.findItemIdsDeletedAfter(user.getId(), Tombstone.Type.EVENT, now),
+                user -> List.of(user.getId(), Tombstone.Type.EVENT.name(), time));
+        check(failures, "TombstoneRepository.deleteCreatedBefore",
+                user -> tombstoneRepository.deleteCreatedBefore(now, LIMIT),
+                user -> List.of(time, LIMIT));
+
+        assertTrue(failures.isEmpty(), String.join("\n\n", failures));
+    }
+
+    /**
+     * Calls a repository method in a transaction, that is rolled back, and explains the statement it issued.
+     * @param call Calls the repository method for a stored user.
+     * @param binds Provides the values of the statement's parameters in the order of their occurrence.
+     */
+    private void check(List<String> failures, String description, Consumer<User> call,
+                       Function<User, List<Object>> binds) {
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            var user = userRepository.saveAndFlush(new User("explain@email.com", "password", "explain", true));
+
+            SqlStatementCounter.startCapturingStatements();
+            try {
+                call.accept(user);
+            } finally {
+                var statements = SqlStatementCounter.stopCapturingStatements();
+                assertEquals(1, statements.size(), description + " issued " + statements);
+
+                var sql = statements.get(0);
+                var values = binds.apply(user);
+                assertEquals(sql.chars().filter(c -> c == '?').count(), values.size(),
+                        description + " has other parameters:\n" + sql);
+
+                var plan = jdbcTemplate.queryForObject("explain " + sql, String.class, values.toArray());
+                if (plan.toLowerCase().contains("tablescan")) {
+                    failures.add(description + " scans a table:\n" + plan);
+                }
+                status.setRollbackOnly();
+            }
+        });
+    }
+}
@@ -4,9 +4,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -28,6 +30,13 @@ public class SecurityTest {
         mvc.perform(get("/public/test").secure(true)).andExpect(status().isOk());
     }
 
+    @Test
+    public void readinessProbeNeedsNoAuthentication() throws Exception {
+        // the status depends on the reachability of the mail server, but mustn't require authentication
+        var status = mvc.perform(get("/actuator/health/readiness").secure(true)).andReturn().getResponse().getStatus();
+        assertTrue(status == HttpStatus.OK.value() || status == HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+
     /*@Test
     public void httpIsRedirected() throws Exception {
         mvc.perform(get("/public/test").secure(false)).andExpect(status().isFound());
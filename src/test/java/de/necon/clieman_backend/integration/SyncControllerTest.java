@@ -0,0 +1,202 @@
+package de.necon.clieman_backend.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.necon.clieman_backend.listeners.ResetDatabaseTestExecutionListener;
+import de.necon.clieman_backend.model.ChangeSet;
+import de.necon.clieman_backend.model.EventView;
+import de.necon.clieman_backend.repository.ClientRepository;
+import de.necon.clieman_backend.repository.EventRepository;
+import de.necon.clieman_backend.repository.UserRepository;
+import de.necon.clieman_backend.service.JWTTokenService;
+import de.necon.clieman_backend.util.ModelFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestExecutionListeners;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@ActiveProfiles("test")
+@TestExecutionListeners(mergeMode =
+        TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS,
+        listeners = {ResetDatabaseTestExecutionListener.class}
+)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Transactional
+public class SyncControllerTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    JWTTokenService tokenService;
+
+    @Autowired
+    ObjectMapper mapper;
+
+    @Autowired
+    ModelFactory modelFactory;
+
+    @TestConfiguration
+    public static class Config {
+        @Bean
+        ModelFactory modelFactory(@Autowired UserRepository userRepository,
+                                  @Autowired ClientRepository clientRepository,
+                                  @Autowired EventRepository eventRepository) {
+            return new ModelFactory(userRepository, clientRepository, eventRepository);
+
+        }
+    }
+
+    @Test
+    public void sync_notAuthenticated() throws Exception {
+        var response = mvc.perform(get("/sync").secure(true)).andReturn().getResponse();
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), response.getStatus());
+    }
+
+    @Test
+    public void sync_withoutWatermark_allItemsAreReturned() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        var clients = modelFactory.createClients(2, user, true);
+        modelFactory.createEvent("event", user, List.of(clients.get(0)), true);
+
+        var before = System.currentTimeMillis();
+        var response = sync(tokenService.createToken(user), null);
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+
+        var changes = mapper.readValue(response.getContentAsString(), ChangeSet.class);
+        assertTrue(changes.isFull());
+        assertEquals(2, changes.getClients().size());
+        assertEquals(1, changes.getEvents().size());
+        assertEquals(List.of(clients.get(0).getId().getId()), changes.getEvents().get(0).getClientIds());
+        assertTrue(changes.getWatermark() <= before);
+    }
+
+    @Test
+    public void sync_onlyChangesSinceWatermarkAreReturned() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        var token = tokenService.createToken(user);
+        var client1 = modelFactory.createClient("client1", user, true);
+        var client2 = modelFactory.createClient("client2", user, true);
+        var client3 = modelFactory.createClient("client3", user, true);
+        modelFactory.createClient("unchanged", user, true);
+        modelFactory.createEvent("event1", user, List.of(client1), true);
+        var event2 = modelFactory.createEvent("event2", user, List.of(), true);
+        modelFactory.createEvent("unchanged", user, List.of(client1), true);
+
+        var since = advanceClock();
+
+        var update = client1.copyShallow();
+        update.setName("name");
+        assertEquals(HttpStatus.OK.value(), postItem("/clients/update", update, token).getStatus());
+        assertEquals(HttpStatus.OK.value(), postItem("/clients/remove", client2, token).getStatus());
+        modelFactory.createClient("client4", user, true);
+
+        var eventUpdate = modelFactory.createEvent("event1", user, List.of(client1, client3));
+        assertEquals(HttpStatus.OK.value(), postItem("/events/update", eventUpdate, token).getStatus());
+        assertEquals(HttpStatus.OK.value(), postItem("/events/remove", event2, token).getStatus());
+
+        var response = sync(token, since);
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        var changes = mapper.readValue(response.getContentAsString(), ChangeSet.class);
+
+        assertFalse(changes.isFull());
+        assertEquals(Set.of("client1", "client4"), changes.getClients().stream()
+                .map(c -> c.getId().getId()).collect(Collectors.toSet()));
+        assertEquals(List.of("client2"), changes.getDeletedClients());
+        assertEquals(List.of("event1"), changes.getEvents().stream()
+                .map(EventView::getId).collect(Collectors.toList()));
+        assertEquals(Set.of("client1", "client3"), Set.copyOf(changes.getEvents().get(0).getClientIds()));
+        assertEquals(List.of("event2"), changes.getDeletedEvents());
+
+        // the versions of the updated items have been incremented
+        var json = mapper.readTree(response.getContentAsString());
+        for (var client : json.get("clients")) {
+            assertEquals(client.get("id").asText().equals("client1") ? 1 : 0, client.path("version").asLong());
+        }
+        assertTrue(json.get("events").get(0).path("version").asLong() > 0);
+    }
+
+    @Test
+    public void sync_readdedItem_isNotReportedAsDeleted() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        var token = tokenService.createToken(user);
+        var client = modelFactory.createClient("client", user, true);
+
+        var since = advanceClock();
+
+        assertEquals(HttpStatus.OK.value(), postItem("/clients/remove", client, token).getStatus());
+        assertEquals(HttpStatus.OK.value(), postItem("/clients/add", client.copyShallow(), token).getStatus());
+
+        var changes = mapper.readValue(sync(token, since).getContentAsString(), ChangeSet.class);
+        assertEquals(1, changes.getClients().size());
+        assertTrue(changes.getDeletedClients().isEmpty());
+    }
+
+    @Test
+    public void sync_noChanges_nothingIsReturned() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        var client = modelFactory.createClient("client", user, true);
+        modelFactory.createEvent("event", user, List.of(client), true);
+
+        var since = advanceClock();
+
+        var changes = mapper.readValue(sync(tokenService.createToken(user), since).getContentAsString(),
+                ChangeSet.class);
+        assertFalse(changes.isFull());
+        assertTrue(changes.getClients().isEmpty());
+        assertTrue(changes.getEvents().isEmpty());
+        assertTrue(changes.getDeletedClients().isEmpty());
+        assertTrue(changes.getDeletedEvents().isEmpty());
+    }
+
+    /**
+     * Ensures that the modification times of the items stored before and after the returned watermark differ.
+     */
+    private static long advanceClock() throws InterruptedException {
+        Thread.sleep(10);
+        var now = System.currentTimeMillis();
+        Thread.sleep(10);
+        return now;
+    }
+
+    private MockHttpServletResponse sync(String token, Long since) throws Exception {
+        var header = JWTTokenService.createTokenHeader(token);
+        var request = get("/sync")
+                .header(header.getValue0(), header.getValue1())
+                .secure(true);
+        if (since != null) request.param("since", since.toString());
+        return mvc.perform(request)
+                .andReturn()
+                .getResponse();
+    }
+
+    private MockHttpServletResponse postItem(String url, Object item, String token) throws Exception {
+        var header = JWTTokenService.createTokenHeader(token);
+        var writer = new StringWriter();
+        mapper.writeValue(writer, item);
+        return mvc.perform(post(url)
+                .header(header.getValue0(), header.getValue1())
+                .secure(true)
+                .contentType("application/json")
+                .content(writer.toString()))
+                .andReturn()
+                .getResponse();
+    }
+}
@@ -8,9 +8,13 @@ import de.necon.clieman_backend.repository.ClientRepository;
 import de.necon.clieman_backend.repository.EventRepository;
 import de.necon.clieman_backend.repository.UserRepository;
 import de.necon.clieman_backend.repository.VerificationTokenRepository;
+import de.necon.clieman_backend.extensions.MaxQueries;
 import de.necon.clieman_backend.extensions.TestSmtpServer;
+import de.necon.clieman_backend.listeners.QueryBudgetTestExecutionListener;
+import de.necon.clieman_backend.listeners.ResetDatabaseTestExecutionListener;
 import de.necon.clieman_backend.model.User;
 import de.necon.clieman_backend.service.JWTTokenService;
+import de.necon.clieman_backend.service.UserService;
 import de.necon.clieman_backend.util.Asserter;
 import de.necon.clieman_backend.util.ModelFactory;
 import org.junit.jupiter.api.*;
@@ -24,6 +28,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestExecutionListeners;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.io.StringWriter;
@@ -31,8 +36,13 @@ import java.util.Date;
 
 import static de.necon.clieman_backend.config.ServiceErrorMessages.*;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
+@TestExecutionListeners(mergeMode =
+        TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS,
+        listeners = {ResetDatabaseTestExecutionListener.class, QueryBudgetTestExecutionListener.class}
+)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureMockMvc
 public class UserControllerTest {
@@ -60,6 +70,9 @@ public class UserControllerTest {
     @Autowired
     JWTTokenService tokenService;
 
+    @Autowired
+    UserService userService;
+
     private static TestSmtpServer testSmtpServer;
 
     private User disabledUser;
@@ -115,6 +128,7 @@ public class UserControllerTest {
     }
 
     @Test
+    @MaxQueries(2)
     public void login_enabledUserSucceedsToLogin() throws Exception {
 
         var user = userRepository.saveAndFlush(enabledUser);
@@ -172,7 +186,7 @@ public class UserControllerTest {
         var response = registerUser(userDto);
         assertTrue(response.getStatus() == HttpStatus.OK.value());
 
-        var messages = testSmtpServer.getMessages();
+        var messages = testSmtpServer.waitForMessages(1);
 
         assertTrue(messages.length == 1);
 
@@ -185,6 +199,7 @@ public class UserControllerTest {
 
 
     @Test
+    @MaxQueries(6)
     public void register_newUserIsDisabled() throws Exception {
 
         RegisterUserDto userDto = new RegisterUserDto();
@@ -260,6 +275,7 @@ public class UserControllerTest {
 
 
     @Test
+    @MaxQueries(6)
     public void confirmUser_tokenActivatesUserAccount() throws Exception {
 
         var user = new RegisterUserDto("new@user.com", "password", null);
@@ -355,6 +371,7 @@ public class UserControllerTest {
     }
 
     @Test
+    @MaxQueries(5)
     public void sendVerificationCode_valid() throws Exception {
 
         var user = userRepository.save(new User("test@email.com", "password", null, false));
@@ -362,7 +379,7 @@ public class UserControllerTest {
         assertTrue(response.getStatus() == HttpStatus.OK.value());
 
         //check that email was send
-        var messages = testSmtpServer.getMessages();
+        var messages = testSmtpServer.waitForMessages(1);
         assertEquals(1, messages.length);
         var message = messages[0];
         var recipients = message.getAllRecipients();
@@ -432,6 +449,7 @@ public class UserControllerTest {
     }
 
     @Test
+    @MaxQueries(3)
     public void changePassword_valid() throws Exception {
 
         var oldPassword = "password";
@@ -494,6 +512,7 @@ public class UserControllerTest {
     }
 
     @Test
+    @MaxQueries(4)
     public void changeEmail_valid() throws Exception {
 
         var user = new User("test@email.com", "password", null, true);
@@ -572,6 +591,7 @@ public class UserControllerTest {
 
 
     @Test
+    @MaxQueries(5)
     public void changeUsername_valid() throws Exception {
         var user = new User("test@email.com", "password", null, true);
         user = userRepository.save(user);
@@ -640,6 +660,7 @@ public class UserControllerTest {
     }
 
     @Test
+    @MaxQueries(6)
     public void deleteUser_valid() throws Exception {
         var user = modelFactory.createUser("test@email.com", true, false);
         var rawPassword = "password";
@@ -675,6 +696,57 @@ public class UserControllerTest {
     }
 
 
+    /**
+     * The users of the tokens are cached. The following tests ensure that already issued tokens see the changes of
+     * their user.
+     */
+    @Test
+    public void oldToken_userDeleted_unauthorized() throws Exception {
+        var user = modelFactory.createUser("test@email.com", true, false);
+        var rawPassword = "password";
+        user.setPassword(encoder.encode(rawPassword));
+        user = userRepository.saveAndFlush(user);
+
+        String token = tokenService.createToken(user);
+        assertEquals(HttpStatus.OK.value(), getClients(token).getStatus());
+
+        assertEquals(HttpStatus.OK.value(), deleteUser(new PasswordDto(rawPassword), token).getStatus());
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), getClients(token).getStatus());
+    }
+
+    @Test
+    public void oldToken_userDisabled_userIsDisabled() throws Exception {
+        var user = userRepository.saveAndFlush(new User("test@email.com", "password", null, true));
+
+        String token = tokenService.createToken(user);
+        assertEquals(HttpStatus.OK.value(), getClients(token).getStatus());
+
+        userService.updateEnabledUser(user.getEmail(), new User(user.getEmail(), user.getPassword(), null, false));
+
+        var response = changeUsername(new UsernameDto("test"), token);
+        assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
+
+        var errorList = objectMapper.readValue(response.getContentAsString(), ErrorListDto.class);
+        Asserter.assertContainsError(errorList.getErrors(), USER_IS_DISABLED);
+    }
+
+    @Test
+    public void oldToken_emailChanged_unauthorized() throws Exception {
+        var user = userRepository.saveAndFlush(new User("test@email.com", "password", null, true));
+
+        String token = tokenService.createToken(user);
+        assertEquals(HttpStatus.OK.value(), getClients(token).getStatus());
+
+        var response = changeEmail(new EmailDto("new@email.com"), token);
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        var newToken = response.getHeader(JWTTokenService.HEADER_STRING)
+                .substring(JWTTokenService.TOKEN_PREFIX.length());
+
+        // the subject of the old token is the old email
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), getClients(token).getStatus());
+        assertEquals(HttpStatus.OK.value(), getClients(newToken).getStatus());
+    }
+
     private MockHttpServletResponse confirmUser(TokenDto tokenDto) throws Exception {
         var writer = new StringWriter();
         objectMapper.writeValue(writer, tokenDto);
@@ -749,4 +821,11 @@ public class UserControllerTest {
                 .contentType("application/json")
                 .content(writer.toString())).andReturn().getResponse();
     }
+
+    private MockHttpServletResponse getClients(String token) throws Exception {
+        var header = JWTTokenService.createTokenHeader(token);
+        return mvc.perform(get("/clients/getAll")
+                .header(header.getValue0(), header.getValue1())
+                .secure(true)).andReturn().getResponse();
+    }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.icegreen.greenmail.store.FolderException;
 import de.necon.clieman_backend.events.OnSendVerificationCodeEvent;
 import de.necon.clieman_backend.extensions.TestSmtpServer;
 import de.necon.clieman_backend.listeners.ResetDatabaseTestExecutionListener;
+import de.necon.clieman_backend.logic.EmailOutboxDispatcher;
 import de.necon.clieman_backend.logic.SendVerificationCodeListener;
 import de.necon.clieman_backend.model.User;
 import de.necon.clieman_backend.repository.UserRepository;
@@ -46,6 +47,9 @@ public class VerificationTokenIntegrationTest {
     @Autowired
     private SendVerificationCodeListener sendVerificationCodeListener;
 
+    @Autowired
+    private EmailOutboxDispatcher emailOutboxDispatcher;
+
     @Autowired
     UserRepository userRepository;
 
@@ -118,5 +122,8 @@ public class VerificationTokenIntegrationTest {
     private void sendVerificationCode(User user) {
         OnSendVerificationCodeEvent event = new OnSendVerificationCodeEvent(user);
         sendVerificationCodeListener.onApplicationEvent(event);
+
+        // the test transaction doesn't commit, so the outbox has to be dispatched manually
+        emailOutboxDispatcher.dispatchPendingMessages();
     }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package de.necon.clieman_backend.listeners;
+
+import de.necon.clieman_backend.extensions.MaxQueries;
+import de.necon.clieman_backend.extensions.SqlStatementCounter;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.support.AbstractTestExecutionListener;
+
+import java.util.stream.Collectors;
+
+/**
+ * Fails tests annotated with MaxQueries, if one of their MockMvc requests issued more SQL statements than the
+ * budget. The statements are counted by the SqlStatementCounter.
+ */
+public class QueryBudgetTestExecutionListener extends AbstractTestExecutionListener {
+
+    @Override
+    public final int getOrder() {
+        return 2002;
+    }
+
+    @Override
+    public void beforeTestMethod(TestContext testContext) {
+        if (getBudget(testContext) != null) SqlStatementCounter.startRecordingRequests();
+    }
+
+    @Override
+    public void afterTestMethod(TestContext testContext) {
+        var budget = getBudget(testContext);
+        if (budget == null) return;
+
+        var requests = SqlStatementCounter.stopRecordingRequests();
+
+        // a failed test is reported with its own error
+        if (testContext.getTestException() != null) return;
+
+        var exceeded = requests.stream()
+                .filter(r -> r.getValue1() > budget.value())
+                .map(r -> r.getValue0() + ": " + r.getValue1())
+                .collect(Collectors.toList());
+
+        if (!exceeded.isEmpty()) {
+            throw new AssertionError("Requests exceeded the budget of " + budget.value() + " statements: " +
+                    String.join(", ", exceeded));
+        }
+    }
+
+    private static MaxQueries getBudget(TestContext testContext) {
+        var budget = AnnotatedElementUtils.findMergedAnnotation(testContext.getTestMethod(), MaxQueries.class);
+        if (budget != null) return budget;
+        return AnnotatedElementUtils.findMergedAnnotation(testContext.getTestClass(), MaxQueries.class);
+    }
+}
@@ -1,5 +1,6 @@
 package de.necon.clieman_backend.listeners;
 
+import de.necon.clieman_backend.service.UserCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.TestContext;
 import org.springframework.test.context.support.AbstractTestExecutionListener;
@@ -17,6 +18,9 @@ public class ResetDatabaseTestExecutionListener extends AbstractTestExecutionLis
     @Autowired
     private DataSource dataSource;
 
+    @Autowired
+    private UserCache userCache;
+
     public final int getOrder() {
         return 2001;
     }
@@ -39,6 +43,14 @@ public class ResetDatabaseTestExecutionListener extends AbstractTestExecutionLis
         }
     }
 
+    /**
+     * The users of the previous test were rolled back or deleted, but might still be cached.
+     */
+    @Override
+    public void beforeTestMethod(TestContext testContext) {
+        userCache.clear();
+    }
+
     @Override
     public void afterTestClass(TestContext testContext) throws Exception {
         cleanupDatabase();
@@ -77,5 +89,7 @@ public class ResetDatabaseTestExecutionListener extends AbstractTestExecutionLis
         s.execute("SET REFERENTIAL_INTEGRITY TRUE");
         s.close();
         c.close();
+
+        userCache.clear();
     }
 }
\ No newline at end of file
@@ -17,6 +17,7 @@ import java.io.StringWriter;
 
 import static de.necon.clieman_backend.config.ServiceErrorMessages.INVALID_ID;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
@@ -113,6 +114,44 @@ public class ClientIDUnitTest {
         assertEquals(null, deserializedID.getUser());
     }
 
+    @Test
+    public void equality_BasedOnIdAndUserId() {
+
+        var user = createUser("test@email.com", "test");
+        user.setId(1L);
+        var copy = user.copy();
+        copy.setUsername("other");
+
+        var id = new ID("id", user);
+        var other = new ID("id", copy);
+
+        assertEquals(id, other);
+        assertEquals(id.hashCode(), other.hashCode());
+        assertNotEquals(id, new ID("id", null));
+        assertNotEquals(id, new ID("other", user));
+        assertEquals(new ID(null, null), new ID(null, null));
+        assertEquals(new ID(null, null).hashCode(), new ID(null, null).hashCode());
+    }
+
+    @Test
+    public void hashCode_FollowsChanges() {
+
+        var user = createUser("test@email.com", "test");
+        var id = new ID("id", user);
+        var hashWithoutUserId = id.hashCode();
+
+        // the id of a user is assigned when it is persisted
+        user.setId(1L);
+        assertEquals(new ID("id", user.copy()).hashCode(), id.hashCode());
+        assertNotEquals(hashWithoutUserId, id.hashCode());
+
+        id.setId("other");
+        assertEquals(new ID("other", user.copy()).hashCode(), id.hashCode());
+
+        id.setUser(null);
+        assertEquals(new ID("other", null).hashCode(), id.hashCode());
+    }
+
     private static User createUser(String email, String username) {
         return new User(email, "password", username, true);
     }
@@ -1,19 +1,27 @@
 package de.necon.clieman_backend.unit;
 
+import de.necon.clieman_backend.extensions.SqlStatementCounter;
+import de.necon.clieman_backend.model.ID;
 import de.necon.clieman_backend.repository.ClientRepository;
 import de.necon.clieman_backend.repository.EventRepository;
 import de.necon.clieman_backend.repository.UserRepository;
 import de.necon.clieman_backend.util.ModelFactory;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(SpringExtension.class)
@@ -29,6 +37,9 @@ public class ClientRepositoryTest {
     @Autowired
     ModelFactory modelFactory;
 
+    @PersistenceContext
+    EntityManager entityManager;
+
     @TestConfiguration
     public static class Config {
         @Bean
@@ -65,4 +76,43 @@ public class ClientRepositoryTest {
         assertTrue(result1.containsAll(List.of(client11, client12, client13)));
         assertTrue(result2.containsAll(List.of(client21, client22)));
     }
+
+    @Test
+    public void findAllByUser_userIsNotLoaded() {
+
+        var user = modelFactory.createUser("test@email.com", true, true);
+        modelFactory.createClient("client1", user, true);
+        modelFactory.createClient("client2", user, true);
+        entityManager.flush();
+        entityManager.clear();
+
+        SqlStatementCounter.reset();
+        var result = clientRepository.findAllByUser(user);
+
+        assertEquals(2, result.size());
+        assertEquals(1, SqlStatementCounter.getCount());
+
+        // ids are compared by the user's id, which doesn't require to initialize the user proxy
+        var ids = List.of(result.get(0).getId(), result.get(1).getId());
+        assertTrue(ids.containsAll(List.of(new ID("client1", user), new ID("client2", user))));
+        assertFalse(Hibernate.isInitialized(result.get(0).getUser()));
+    }
+
+    @Test
+    public void findPageByUser_pagesAreOrderedAndDisjoint() {
+
+        var user1 = modelFactory.createUser("test@email.com", true, true);
+        var user2 = modelFactory.createUser("test2@email.com", true, true);
+
+        var client3 = modelFactory.createClient("client3", user1, true);
+        var client1 = modelFactory.createClient("client1", user1, true);
+        var client2 = modelFactory.createClient("client2", user1, true);
+        modelFactory.createClient("client0", user2, true);
+
+        var page1 = clientRepository.findPageByUser(user1, "", PageRequest.of(0, 2));
+        var page2 = clientRepository.findPageByUser(user1, page1.get(1).getId().getId(), PageRequest.of(0, 2));
+
+        assertEquals(List.of(client1, client2), page1);
+        assertEquals(List.of(client3), page2);
+    }
 }
\ No newline at end of file
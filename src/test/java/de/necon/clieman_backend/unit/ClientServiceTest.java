@@ -1,6 +1,7 @@
 package de.necon.clieman_backend.unit;
 
 import de.necon.clieman_backend.exception.ServiceError;
+import de.necon.clieman_backend.listeners.ResetDatabaseTestExecutionListener;
 import de.necon.clieman_backend.model.ID;
 import de.necon.clieman_backend.model.User;
 import de.necon.clieman_backend.repository.ClientRepository;
@@ -8,6 +9,8 @@ import de.necon.clieman_backend.repository.EventRepository;
 import de.necon.clieman_backend.repository.UserRepository;
 import de.necon.clieman_backend.service.ClientService;
 import de.necon.clieman_backend.service.ClientServiceImpl;
+import de.necon.clieman_backend.service.UserCache;
+import de.necon.clieman_backend.service.UserCacheImpl;
 import de.necon.clieman_backend.util.Asserter;
 import de.necon.clieman_backend.util.ModelFactory;
 import org.junit.jupiter.api.Assertions;
@@ -16,12 +19,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.TestExecutionListeners;
 
 import java.util.Date;
 import java.util.List;
 
 import static de.necon.clieman_backend.config.ServiceErrorMessages.*;
 
+// the users of the tests are rolled back, but might still be cached
+@TestExecutionListeners(mergeMode =
+        TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS,
+        listeners = {ResetDatabaseTestExecutionListener.class}
+)
 @DataJpaTest
 public class ClientServiceTest {
 
@@ -45,6 +55,11 @@ public class ClientServiceTest {
             return new ClientServiceImpl();
         }
 
+        @Bean
+        UserCache userCache(@Autowired UserRepository userRepository, @Autowired Environment env) {
+            return new UserCacheImpl(userRepository, env);
+        }
+
         @Bean
         ModelFactory modelFactory(@Autowired UserRepository userRepository,
                                   @Autowired ClientRepository clientRepository,
@@ -105,6 +120,16 @@ public class ClientServiceTest {
         Asserter.assertContainsError(serviceError.getErrors(), NO_USER);
     }
 
+    @Test
+    public void getClientsOfUser_page_invalidLimitNotAllowed() {
+        var user = modelFactory.createUser("test@email.com", true, true);
+
+        var serviceError = (ServiceError) Asserter.assertException(ServiceError.class).isThrownBy(()->{
+            clientService.getClientsOfUser(user, null, 0);
+        }).source();
+
+        Asserter.assertContainsError(serviceError.getErrors(), INVALID_PAGE_LIMIT);
+    }
 
     @Test
     public void addClient_NullNotAllowed() {
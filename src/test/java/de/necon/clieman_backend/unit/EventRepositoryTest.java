@@ -4,6 +4,7 @@ import de.necon.clieman_backend.model.Client;
 import de.necon.clieman_backend.util.Asserter;
 import de.necon.clieman_backend.util.ModelFactory;
 import de.necon.clieman_backend.model.Event;
+import de.necon.clieman_backend.model.EventView;
 import de.necon.clieman_backend.model.User;
 import de.necon.clieman_backend.repository.ClientRepository;
 import de.necon.clieman_backend.repository.EventRepository;
@@ -18,7 +19,9 @@ import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -82,6 +85,50 @@ public class EventRepositoryTest {
         });
     }
 
+    @Test
+    public void findAllViewsByUserInRange_onlyOverlappingEventsReturned() {
+        User user = modelFactory.createUser("test@email.com", true, true);
+        User user2 = modelFactory.createUser("test2@email.com", true, true);
+
+        var before = createEvent("before", user, 0, 10);
+        var overlapsBegin = createEvent("overlapsBegin", user, 50, 150);
+        var inside = createEvent("inside", user, 120, 130);
+        var overlapsEnd = createEvent("overlapsEnd", user, 180, 250);
+        var enclosing = createEvent("enclosing", user, 20, 300);
+        var after = createEvent("after", user, 400, 500);
+        var otherUser = createEvent("inside", user2, 120, 130);
+
+        var result = eventRepository.findAllViewsByUserInRange(user, new Date(100), new Date(200)).stream()
+                .map(EventView::getId).collect(Collectors.toList());
+
+        assertEquals(4, result.size());
+        assertTrue(result.containsAll(List.of(overlapsBegin.getId().getId(), inside.getId().getId(),
+                overlapsEnd.getId().getId(), enclosing.getId().getId())));
+        assertTrue(!result.contains(before.getId().getId()) && !result.contains(after.getId().getId()));
+    }
+
+    @Test
+    public void findClientReferencesByUser_onlyReferencesOfUserReturned() {
+        User user = modelFactory.createUser("test@email.com", true, true);
+        User user2 = modelFactory.createUser("test2@email.com", true, true);
+        Client client = modelFactory.createClient("client", user, true);
+        Client client2 = modelFactory.createClient("client2", user, true);
+        Client client3 = modelFactory.createClient("client", user2, true);
+        modelFactory.createEvent("event1", user, List.of(client, client2), true);
+        modelFactory.createEvent("event2", user, List.of(client2), true);
+        modelFactory.createEvent("event1", user2, List.of(client3), true);
+        eventRepository.flush();
+
+        var result = eventRepository.findClientReferencesByUser(user.getId()).stream()
+                .map(reference -> reference[0] + "->" + reference[1]).collect(Collectors.toList());
+        assertEquals(3, result.size());
+        assertTrue(result.containsAll(List.of("event1->client", "event1->client2", "event2->client2")));
+
+        result = eventRepository.findClientReferencesByUserAndEvents(user.getId(), List.of("event2")).stream()
+                .map(reference -> reference[0] + "->" + reference[1]).collect(Collectors.toList());
+        assertEquals(List.of("event2->client2"), result);
+    }
+
     @Test
     public void findAllByClient_allEventsForClientReturned() {
 
@@ -124,6 +171,10 @@ public class EventRepositoryTest {
         assertEquals(0, result0.size());
     }
 
-
-
+    private Event createEvent(String id, User user, long start, long end) {
+        var event = modelFactory.createEvent(id, user, List.of());
+        event.setStart(new Date(start));
+        event.setEnd(new Date(end));
+        return eventRepository.saveAndFlush(event);
+    }
 }
\ No newline at end of file
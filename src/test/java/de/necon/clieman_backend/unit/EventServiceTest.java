@@ -1,6 +1,8 @@
 package de.necon.clieman_backend.unit;
 
 import de.necon.clieman_backend.exception.ServiceError;
+import de.necon.clieman_backend.extensions.SqlStatementCounter;
+import de.necon.clieman_backend.listeners.ResetDatabaseTestExecutionListener;
 import de.necon.clieman_backend.util.ModelFactory;
 import de.necon.clieman_backend.model.*;
 import de.necon.clieman_backend.repository.ClientRepository;
@@ -8,21 +10,35 @@ import de.necon.clieman_backend.repository.EventRepository;
 import de.necon.clieman_backend.repository.UserRepository;
 import de.necon.clieman_backend.service.EventService;
 import de.necon.clieman_backend.service.EventServiceImpl;
+import de.necon.clieman_backend.service.UserCache;
+import de.necon.clieman_backend.service.UserCacheImpl;
 import de.necon.clieman_backend.util.Asserter;
+import org.javatuples.Pair;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.TestExecutionListeners;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static de.necon.clieman_backend.config.ServiceErrorMessages.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+// the users of the tests are rolled back, but might still be cached
+@TestExecutionListeners(mergeMode =
+        TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS,
+        listeners = {ResetDatabaseTestExecutionListener.class}
+)
 @DataJpaTest
 public class EventServiceTest {
 
@@ -41,6 +57,9 @@ public class EventServiceTest {
     @Autowired
     ModelFactory modelFactory;
 
+    @PersistenceContext
+    EntityManager entityManager;
+
     @TestConfiguration
     public static class Config {
 
@@ -49,6 +68,11 @@ public class EventServiceTest {
             return new EventServiceImpl();
         }
 
+        @Bean
+        UserCache userCache(@Autowired UserRepository userRepository, @Autowired Environment env) {
+            return new UserCacheImpl(userRepository, env);
+        }
+
         @Bean
         ModelFactory modelFactory(@Autowired UserRepository userRepository,
                                   @Autowired ClientRepository clientRepository,
@@ -104,6 +128,76 @@ public class EventServiceTest {
         Asserter.assertContainsError(serviceError.getErrors(), NO_USER);
     }
 
+    @Test
+    public void getEventViewsOfUser_viewsMatchEvents() {
+        var users = modelFactory.createUsers(2, true);
+        var client = modelFactory.createClient("client", users.get(0), true);
+        var client2 = modelFactory.createClient("client2", users.get(0), true);
+        var event = modelFactory.createEvent("event", users.get(0), List.of(client, client2), true);
+        modelFactory.createEvent("event2", users.get(0), List.of(), true);
+        modelFactory.createEvent("event", users.get(1), List.of(), true);
+
+        var views = eventService.getEventViewsOfUser(users.get(0));
+        assertEquals(2, views.size());
+
+        var view = views.stream().filter(v -> v.getId().equals("event")).findFirst().orElseThrow();
+        assertEquals(event.getName(), view.getName());
+        assertEquals(event.getStart(), view.getStart());
+        assertEquals(2, view.getClientIds().size());
+        Assertions.assertTrue(view.getClientIds().containsAll(List.of("client", "client2")));
+
+        var page = eventService.getEventViewsOfUser(users.get(0), null, 1);
+        assertEquals(1, page.size());
+        assertEquals("event", page.get(0).getId());
+        assertEquals(2, page.get(0).getClientIds().size());
+    }
+
+    @Test
+    public void forEachEventOfUser_allEventsOfUserAreConsumed() {
+        var users = modelFactory.createUsers(2, true);
+        var events = modelFactory.createEvents(List.of(
+                new ModelFactory.SimpleEventCreationDesc(3, users.get(0)),
+                new ModelFactory.SimpleEventCreationDesc(2, users.get(1))
+        ), true);
+
+        List<Event> consumed = new ArrayList<>();
+        eventService.forEachEventOfUser(users.get(0), consumed::add);
+
+        assertEquals(3, consumed.size());
+        Assertions.assertTrue(consumed.containsAll(events.subList(0, 3)));
+    }
+
+    @Test
+    public void getEventViewsOfUserInRange_onlyEventsWithinRangeAreReturned() {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        var inRange = modelFactory.createEvent("inRange", user, List.of());
+        inRange.setStart(new Date(100));
+        inRange.setEnd(new Date(200));
+        var outOfRange = modelFactory.createEvent("outOfRange", user, List.of());
+        outOfRange.setStart(new Date(1000));
+        outOfRange.setEnd(new Date(2000));
+        eventRepository.saveAll(List.of(inRange, outOfRange));
+
+        var events = eventService.getEventViewsOfUserInRange(user, new Date(0), new Date(500));
+        assertEquals(1, events.size());
+        assertEquals(inRange.getId().getId(), events.get(0).getId());
+    }
+
+    @Test
+    public void getEventViewsOfUserInRange_invalidRangeNotAllowed() {
+        var user = modelFactory.createUser("test@email.com", true, true);
+
+        var serviceError = (ServiceError) Asserter.assertException(ServiceError.class).isThrownBy(()->{
+            eventService.getEventViewsOfUserInRange(user, new Date(500), new Date(0));
+        }).source();
+        Asserter.assertContainsError(serviceError.getErrors(), INVALID_DATE_RANGE);
+
+        serviceError = (ServiceError) Asserter.assertException(ServiceError.class).isThrownBy(()->{
+            eventService.getEventViewsOfUserInRange(user, null, new Date(0));
+        }).source();
+        Asserter.assertContainsError(serviceError.getErrors(), INVALID_DATE_RANGE);
+    }
+
     @Test
     public void addEvent_ValidEvent() {
         var user = modelFactory.createUser("test@email.com", true, true);
@@ -240,6 +334,36 @@ public class EventServiceTest {
         Asserter.assertContainsError(serviceError.getErrors(), EVENT_NOT_VALID);
     }
 
+    @Test
+    public void addEvent_UnknownClientsResultInOneError() {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        modelFactory.createClient("client", user, true);
+        Event event = modelFactory.createEvent("id", user, new ArrayList<>(List.of(Client.reference("unknown1"),
+                Client.reference("client"), Client.reference("unknown2"))));
+
+        var serviceError = (ServiceError) Asserter.assertException(ServiceError.class).isThrownBy(()->{
+            eventService.addEvent(event);
+        }).source();
+
+        assertEquals(List.of(EVENT_NOT_VALID), serviceError.getErrors());
+        Assertions.assertTrue(eventRepository.findById(event.getId()).isEmpty());
+    }
+
+    @Test
+    public void addEvent_ClientReferencesAreResolved() {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        var clients = modelFactory.createClients(3, user, true);
+        Event event = modelFactory.createEvent("id", user, clients.stream()
+                .map(c -> Client.reference(c.getId().getId())).collect(Collectors.toList()));
+
+        eventService.addEvent(event);
+        entityManager.clear();
+
+        var storedEvent = eventRepository.findById(event.getId()).get();
+        assertEquals(clients.stream().map(c -> c.getId().getId()).collect(Collectors.toSet()),
+                storedEvent.getClients().stream().map(c -> c.getId().getId()).collect(Collectors.toSet()));
+    }
+
     @Test
     public void addEvent_SameUserDifferentIdsAllowed() {
         var user = modelFactory.createUser("test@email.com", true, true);
@@ -340,6 +464,91 @@ public class EventServiceTest {
         assertEquals(event, storedEvent);
     }
 
+    @Test
+    public void updateEvent_onlyChangesAreWritten() {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        var client1 = modelFactory.createClient("client1", user, true);
+        var client2 = modelFactory.createClient("client2", user, true);
+        var client3 = modelFactory.createClient("client3", user, true);
+        var event = modelFactory.createEvent("eventID", user, List.of(client1, client2), true);
+        entityManager.flush();
+        entityManager.clear();
+
+        var update = event.copyMiddle();
+        update.setColor("#303050");
+        update.setClients(new ArrayList<>(List.of(client2, client3)));
+
+        SqlStatementCounter.reset();
+        eventService.updateEvent(update);
+        var count = SqlStatementCounter.getCount();
+
+        entityManager.clear();
+        var storedEvent = eventRepository.findById(event.getId()).get();
+        assertEquals("#303050", storedEvent.getColor());
+        assertEquals(2, storedEvent.getClients().size());
+        Assertions.assertTrue(storedEvent.getClients().stream().map(c -> c.getId().getId())
+                .collect(Collectors.toList()).containsAll(List.of("client2", "client3")));
+
+        // select user, select event, select client ids of the event, update event,
+        // delete the removed client link and insert the added client link.
+        assertEquals(6, count);
+    }
+
+    @Test
+    public void applyBatch_updateOnlyWritesChangedLinks() {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        var client1 = modelFactory.createClient("client1", user, true);
+        var client2 = modelFactory.createClient("client2", user, true);
+        var client3 = modelFactory.createClient("client3", user, true);
+        var event1 = modelFactory.createEvent("event1", user, List.of(client1, client2), true);
+        var event2 = modelFactory.createEvent("event2", user, List.of(client1, client2), true);
+        entityManager.flush();
+        entityManager.clear();
+
+        var update1 = event1.copyMiddle();
+        update1.setColor("#303050");
+        update1.setClients(new ArrayList<>(List.of(client2, client3)));
+        var update2 = event2.copyMiddle();
+        update2.setColor("#303050");
+
+        SqlStatementCounter.reset();
+        var results = eventService.applyBatch(user, List.of(
+                Pair.with(BatchOperation.UPDATE, update1),
+                Pair.with(BatchOperation.UPDATE, update2)));
+        var count = SqlStatementCounter.getCount();
+
+        assertEquals(List.of(List.of(), List.of()), results);
+
+        entityManager.clear();
+        var storedEvent1 = eventRepository.findById(event1.getId()).get();
+        assertEquals("#303050", storedEvent1.getColor());
+        assertEquals(Set.of("client2", "client3"), storedEvent1.getClients().stream()
+                .map(c -> c.getId().getId()).collect(Collectors.toSet()));
+        var storedEvent2 = eventRepository.findById(event2.getId()).get();
+        assertEquals("#303050", storedEvent2.getColor());
+        assertEquals(Set.of("client1", "client2"), storedEvent2.getClients().stream()
+                .map(c -> c.getId().getId()).collect(Collectors.toSet()));
+
+        // select user, select events, select clients, select client ids of the events, update events,
+        // delete the removed client link and insert the added client link. The links of event2 aren't touched.
+        assertEquals(7, count);
+    }
+
+    @Test
+    public void updateEvent_notExistingClientNotAllowed() {
+        var user = modelFactory.createUser("test@email.com", true, true);
+        var event = modelFactory.createEvent("eventID", user, List.of(), true);
+
+        var update = event.copyMiddle();
+        update.setClients(new ArrayList<>(List.of(modelFactory.createClient("notStored", user, false))));
+
+        var serviceError = (ServiceError) Asserter.assertException(ServiceError.class).isThrownBy(()->{
+            eventService.updateEvent(update);
+        }).source();
+
+        Asserter.assertContainsError(serviceError.getErrors(), EVENT_NOT_VALID);
+    }
+
     @Test
     public void removeEvent_invalid_null() {
         var serviceError = (ServiceError) Asserter.assertException(ServiceError.class).isThrownBy(()->{
@@ -1,6 +1,7 @@
 package de.necon.clieman_backend.unit;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
 import de.necon.clieman_backend.model.Client;
 import de.necon.clieman_backend.model.Event;
 import de.necon.clieman_backend.model.ID;
@@ -22,6 +23,7 @@ import javax.validation.ValidatorFactory;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static de.necon.clieman_backend.config.ServiceErrorMessages.INVALID_ID;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -145,6 +147,22 @@ public class EventUnitTest {
         Assertions.assertEquals(expected, serialized);
     }
 
+    @Test
+    public void JSONConversion_ClientsAreReadAsReferences() throws IOException {
+
+        var event = mapper.readValue("{\"id\":\"eventID\",\"clients\":[\"client1\",\"client2\"]}", Event.class);
+
+        assertEquals(List.of("client1", "client2"), event.getClients().stream()
+                .map(c -> c.getId().getId()).collect(Collectors.toList()));
+        event.getClients().forEach(c -> assertEquals(Client.reference(c.getId().getId()), c));
+    }
+
+    @Test
+    public void JSONConversion_ClientNotAStringNotAllowed() {
+        Assertions.assertThrows(MismatchedInputException.class, () ->
+                mapper.readValue("{\"id\":\"eventID\",\"clients\":[{\"id\":\"client1\"}]}", Event.class));
+    }
+
     private Event createValidEvent() {
         return createValidEvent("eventID", List.of("client1", "client2"));
     }
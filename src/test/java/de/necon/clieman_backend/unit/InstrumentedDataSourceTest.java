@@ -0,0 +1,77 @@
+package de.necon.clieman_backend.unit;
+
+import de.necon.clieman_backend.util.InstrumentedDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstrumentedDataSourceTest {
+
+    private final List<String> slowStatements = new ArrayList<>();
+
+    @Test
+    public void slowStatements_areReportedWithParameterTypesAndCaller() throws SQLException {
+        var dataSource = createDataSource(0);
+
+        try (var connection = dataSource.getConnection()) {
+            connection.createStatement().execute("CREATE TABLE item (name VARCHAR(20), amount BIGINT, note VARCHAR(20))");
+
+            var statement = connection.prepareStatement("INSERT INTO item VALUES (?, ?, ?)");
+            statement.setString(1, "name");
+            statement.setLong(2, 42L);
+            statement.setNull(3, Types.VARCHAR);
+            assertEquals(1, statement.executeUpdate());
+
+            assertEquals(connection, connection);
+            assertEquals(statement, statement);
+        }
+
+        assertEquals(2, dataSource.getStatementCount());
+        assertEquals(2, dataSource.getSlowStatementCount());
+        assertEquals(List.of(
+                "CREATE TABLE item (name VARCHAR(20), amount BIGINT, note VARCHAR(20)) [] " +
+                        "InstrumentedDataSourceTest.slowStatements_areReportedWithParameterTypesAndCaller",
+                "INSERT INTO item VALUES (?, ?, ?) [String, Long, null] " +
+                        "InstrumentedDataSourceTest.slowStatements_areReportedWithParameterTypesAndCaller"),
+                slowStatements);
+    }
+
+    @Test
+    public void fastStatements_areOnlyCounted() throws SQLException {
+        var dataSource = createDataSource(10_000);
+
+        try (var connection = dataSource.getConnection()) {
+            var statement = connection.prepareStatement("SELECT ?");
+            statement.setInt(1, 1);
+            try (var resultSet = statement.executeQuery()) {
+                assertTrue(resultSet.next());
+                assertEquals(1, resultSet.getInt(1));
+            }
+        }
+
+        assertEquals(1, dataSource.getStatementCount());
+        assertEquals(0, dataSource.getSlowStatementCount());
+        assertTrue(slowStatements.isEmpty());
+
+        dataSource.resetCounts();
+        assertEquals(0, dataSource.getStatementCount());
+    }
+
+    private InstrumentedDataSource createDataSource(long thresholdMillis) {
+        var target = new JdbcDataSource();
+        target.setURL("jdbc:h2:mem:instrumented");
+
+        return new InstrumentedDataSource(target, thresholdMillis) {
+            @Override
+            protected void onSlowStatement(String sql, List<String> parameterTypes, String caller, long millis) {
+                slowStatements.add(sql + " " + parameterTypes + " " + caller);
+            }
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package de.necon.clieman_backend.unit;
+
+import de.necon.clieman_backend.logic.SmtpHealthIndicator;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.mail.MessagingException;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class SmtpHealthIndicatorTest {
+
+    private final MockEnvironment env = new MockEnvironment()
+            .withProperty(SmtpHealthIndicator.TIMEOUT_PROPERTY, "100");
+
+    @Test
+    public void health_unknownBeforeFirstCheck() {
+        var indicator = new SmtpHealthIndicator(mock(JavaMailSenderImpl.class), env);
+        assertEquals(Status.UNKNOWN, indicator.health().getStatus());
+    }
+
+    @Test
+    public void check_reachableMailServerIsUp() throws Exception {
+        var indicator = new SmtpHealthIndicator(mock(JavaMailSenderImpl.class), env);
+        indicator.check().get();
+        assertEquals(Status.UP, indicator.health().getStatus());
+    }
+
+    @Test
+    public void check_connectionErrorIsDown() throws Exception {
+        var mailSender = mock(JavaMailSenderImpl.class);
+        doThrow(new MessagingException("connection refused")).when(mailSender).testConnection();
+
+        var indicator = new SmtpHealthIndicator(mailSender, env);
+        indicator.check().get();
+        assertEquals(Status.DOWN, indicator.health().getStatus());
+    }
+
+    @Test
+    public void check_slowMailServerIsDownAfterTimeout() throws Exception {
+        var latch = new CountDownLatch(1);
+        var mailSender = mock(JavaMailSenderImpl.class);
+        doAnswer(invocation -> {
+            latch.await();
+            return null;
+        }).when(mailSender).testConnection();
+
+        var indicator = new SmtpHealthIndicator(mailSender, env);
+        indicator.check().get();
+        assertEquals(Status.DOWN, indicator.health().getStatus());
+
+        latch.countDown();
+        indicator.shutdown();
+    }
+}
@@ -0,0 +1,84 @@
+package de.necon.clieman_backend.unit;
+
+import de.necon.clieman_backend.extensions.SqlStatementCounter;
+import de.necon.clieman_backend.model.User;
+import de.necon.clieman_backend.repository.UserRepository;
+import de.necon.clieman_backend.service.UserCache;
+import de.necon.clieman_backend.service.UserCacheImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class UserCacheTest {
+
+    @Autowired
+    UserRepository userRepository;
+
+    UserCache userCache;
+
+    User user;
+
+    @BeforeEach
+    public void setup() {
+        var env = new MockEnvironment().withProperty(UserCacheImpl.ENABLED_PROPERTY, "true");
+        userCache = new UserCacheImpl(userRepository, env);
+        user = userRepository.saveAndFlush(new User("test@email.com", "password", "username", true));
+    }
+
+    @Test
+    public void findByEmail_cachedUserIsReturnedWithoutDatabaseAccess() {
+        assertEquals(user.getId(), userCache.findByEmail(user.getEmail()).get().getId());
+
+        SqlStatementCounter.reset();
+        assertEquals(user.getId(), userCache.findByEmail(user.getEmail()).get().getId());
+        assertEquals(user.getEmail(), userCache.findById(user.getId()).get().getEmail());
+        assertEquals(0, SqlStatementCounter.getCount());
+    }
+
+    @Test
+    public void findByEmail_notExistingUser() {
+        assertTrue(userCache.findByEmail("notExisting@email.com").isEmpty());
+        assertTrue(userCache.findById(-1L).isEmpty());
+        assertTrue(userCache.findByEmail(null).isEmpty());
+    }
+
+    @Test
+    public void findById_returnedUsersAreCopies() {
+        var cached = userCache.findById(user.getId()).get();
+        assertNotSame(user, cached);
+
+        cached.setUsername("changed");
+        assertEquals("username", userCache.findById(user.getId()).get().getUsername());
+    }
+
+    @Test
+    public void evict_changedUserIsReloaded() {
+        userCache.findByEmail(user.getEmail());
+
+        user.setUsername("newUsername");
+        userRepository.saveAndFlush(user);
+        assertEquals("username", userCache.findByEmail(user.getEmail()).get().getUsername());
+
+        userCache.evict(user);
+        assertEquals("newUsername", userCache.findByEmail(user.getEmail()).get().getUsername());
+    }
+
+    @Test
+    public void evict_oldEmailIsEvictedById() {
+        var oldEmail = user.getEmail();
+        userCache.findByEmail(oldEmail);
+
+        user.setEmail("new@email.com");
+        userRepository.saveAndFlush(user);
+
+        // the user has already the new email, the cached entry of the old one is found by the id
+        userCache.evict(user);
+        assertTrue(userCache.findByEmail(oldEmail).isEmpty());
+        assertEquals("new@email.com", userCache.findById(user.getId()).get().getEmail());
+    }
+}
@@ -1,5 +1,6 @@
 package de.necon.clieman_backend.unit;
 
+import de.necon.clieman_backend.extensions.SqlStatementCounter;
 import de.necon.clieman_backend.repository.UserRepository;
 import de.necon.clieman_backend.model.User;
 import org.junit.jupiter.api.Test;
@@ -46,4 +47,22 @@ public class UserRepositoryTest {
 
         assertThat(optionalUser.get().getUsername().equals(username));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void persist_idsAreAllocatedInBlocks() {
+
+        SqlStatementCounter.reset();
+
+        Long previousId = null;
+        for (int i = 0; i < 10; ++i) {
+            User user = new User("test" + i + "@email.com", "password", "username" + i, true);
+            testEntityManager.persistAndFlush(user);
+
+            if (previousId != null) assertEquals(previousId + 1, user.getId());
+            previousId = user.getId();
+        }
+
+        // ten inserts and at most one sequence call (a block might already be allocated by a previous test)
+        assertTrue(SqlStatementCounter.getCount() <= 11);
+    }
+}
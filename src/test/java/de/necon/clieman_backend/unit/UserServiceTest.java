@@ -260,6 +260,19 @@ public class UserServiceTest {
         Asserter.assertContainsError(serviceError.getErrors(), ANOTHER_TOKEN_ALREADY_EXISTS);
     }
 
+    @Test
+    public void renewVerificationToken_existingTokenIsReplaced() {
+
+        var user = new User("test@email.com", "password",
+                "username", false);
+        userRepository.saveAndFlush(user);
+        userService.createVerificationToken(user, "token1");
+        userService.renewVerificationToken(user, "token2");
+
+        assertEquals(1, tokenRepository.findAll().size());
+        assertTrue(tokenRepository.findByToken("token2").isPresent());
+    }
+
     @Test
     public void deleteExistingVerificationToken_valid() {
 
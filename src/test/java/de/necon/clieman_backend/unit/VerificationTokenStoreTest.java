@@ -0,0 +1,131 @@
+package de.necon.clieman_backend.unit;
+
+import de.necon.clieman_backend.exception.ServiceError;
+import de.necon.clieman_backend.extensions.SqlStatementCounter;
+import de.necon.clieman_backend.model.User;
+import de.necon.clieman_backend.model.VerificationToken;
+import de.necon.clieman_backend.repository.UserRepository;
+import de.necon.clieman_backend.repository.VerificationTokenRepository;
+import de.necon.clieman_backend.service.InMemoryVerificationTokenStore;
+import de.necon.clieman_backend.service.JpaVerificationTokenStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.Date;
+
+import static de.necon.clieman_backend.config.ServiceErrorMessages.ANOTHER_TOKEN_ALREADY_EXISTS;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class VerificationTokenStoreTest {
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    VerificationTokenRepository tokenRepository;
+
+    @Test
+    public void jpa_replaceUpdatesExistingTokenInPlace() {
+        var store = new JpaVerificationTokenStore(tokenRepository);
+        var user = createUser("test@email.com");
+        var token = store.add(new VerificationToken("token1", user));
+
+        SqlStatementCounter.reset();
+        var replaced = store.replace(new VerificationToken("token2", user));
+
+        // select of the existing token and a single update
+        assertEquals(2, SqlStatementCounter.getCount());
+        assertEquals(token.getId(), replaced.getId());
+        assertTrue(store.findByToken("token2").isPresent());
+        assertTrue(store.findByToken("token1").isEmpty());
+    }
+
+    @Test
+    public void jpa_purgeExpiredRemovesExpiredTokensInBatches() {
+        var store = new JpaVerificationTokenStore(tokenRepository);
+        var expiryDate = new Date(System.currentTimeMillis() - 1000);
+
+        for (int i = 0; i < 5; ++i) {
+            var token = new VerificationToken("expired" + i, createUser("expired" + i + "@email.com"));
+            token.setExpiryDate(expiryDate);
+            store.add(token);
+        }
+        store.add(new VerificationToken("valid", createUser("valid@email.com")));
+
+        assertEquals(3, store.purgeExpired(3));
+        assertEquals(2, store.purgeExpired(3));
+        assertEquals(0, store.purgeExpired(3));
+
+        var remaining = tokenRepository.findAll();
+        assertEquals(1, remaining.size());
+        assertEquals("valid", remaining.get(0).getToken());
+    }
+
+    @Test
+    public void memory_tokensAreFoundByTokenAndUser() {
+        var store = new InMemoryVerificationTokenStore();
+        var user = createUser("test@email.com");
+
+        var token = store.add(new VerificationToken("token", user));
+
+        assertNotNull(token.getId());
+        assertEquals(token, store.findByToken("token").get());
+        assertEquals(token, store.findByUser(user).get());
+        assertTrue(store.findByToken("other").isEmpty());
+    }
+
+    @Test
+    public void memory_addingSecondTokenOfUserIsNotAllowed() {
+        var store = new InMemoryVerificationTokenStore();
+        var user = createUser("test@email.com");
+        store.add(new VerificationToken("token1", user));
+
+        var error = assertThrows(ServiceError.class, () -> store.add(new VerificationToken("token2", user)));
+        assertTrue(error.getErrors().contains(ANOTHER_TOKEN_ALREADY_EXISTS));
+    }
+
+    @Test
+    public void memory_replacedTokenIsNotFoundAnymore() {
+        var store = new InMemoryVerificationTokenStore();
+        var user = createUser("test@email.com");
+        store.add(new VerificationToken("token1", user));
+
+        store.replace(new VerificationToken("token2", user));
+
+        assertTrue(store.findByToken("token1").isEmpty());
+        assertEquals("token2", store.findByUser(user).get().getToken());
+        assertEquals("token2", store.findByToken("token2").get().getToken());
+    }
+
+    @Test
+    public void memory_expiredTokensAreEvicted() {
+        var store = new InMemoryVerificationTokenStore();
+        var user = createUser("test@email.com");
+        var token = new VerificationToken("token", user);
+        token.setExpiryDate(new Date(System.currentTimeMillis() - 1000));
+
+        store.add(token);
+        store.purgeExpired(100);
+
+        assertTrue(store.findByToken("token").isEmpty());
+        assertTrue(store.findByUser(user).isEmpty());
+    }
+
+    @Test
+    public void memory_removeByUser() {
+        var store = new InMemoryVerificationTokenStore();
+        var user = createUser("test@email.com");
+        store.add(new VerificationToken("token", user));
+
+        store.removeByUser(user);
+
+        assertTrue(store.findByToken("token").isEmpty());
+        assertTrue(store.findByUser(user).isEmpty());
+    }
+
+    private User createUser(String email) {
+        return userRepository.saveAndFlush(new User(email, "password", null, false));
+    }
+}